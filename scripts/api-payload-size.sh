@@ -0,0 +1,33 @@
+#!/usr/bin/env bash
+# Rozmiar odpowiedzi /api/products oraz /api/orders: JSON kontra CBOR i Smile, z ?fields= i bez.
+# Czas serializacji w każdym formacie mierzy benchmark JMH ApiFormatBenchmark (profil benchmarks) -
+# czas curl to głównie sieć, filtry i baza, więc skrypt go nie podaje.
+# Wymaga uruchomionej aplikacji i konta użytkownika (API jest dostępne po zalogowaniu).
+#
+#   USERNAME=jan PASSWORD=haslo scripts/api-payload-size.sh
+
+set -euo pipefail
+
+PORT="${PORT:-9091}"
+BASE="http://localhost:${PORT}"
+JAR_FILE="$(mktemp)"
+trap 'rm -f "$JAR_FILE"' EXIT
+
+token="$(curl -s -c "$JAR_FILE" -b "$JAR_FILE" "$BASE/login" \
+    | grep -o 'name="_csrf" value="[^"]*"' | head -1 | sed 's/.*value="\([^"]*\)"/\1/')"
+curl -s -o /dev/null -c "$JAR_FILE" -b "$JAR_FILE" --data-urlencode "_csrf=$token" \
+    --data-urlencode "username=${USERNAME:?podaj USERNAME}" --data-urlencode "password=${PASSWORD:?podaj PASSWORD}" \
+    "$BASE/login"
+
+measure() {
+    local path="$1" accept="$2"
+    local bytes
+    bytes="$(curl -s -o /dev/null -b "$JAR_FILE" -H "Accept: $accept" -w '%{size_download}' "$BASE$path")"
+    printf '%-40s %-30s %10s B\n' "$path" "$accept" "$bytes"
+}
+
+for path in "/api/products" "/api/products?fields=id,price,stock" "/api/orders" "/api/orders?fields=id,status,totalPrice"; do
+    for accept in "application/json" "application/cbor" "application/x-jackson-smile"; do
+        measure "$path" "$accept"
+    done
+done
@@ -0,0 +1,84 @@
+#!/usr/bin/env bash
+# Potwierdzone zamówienia na sekundę: składanie w wątku żądania kontra grupowy commit
+# (app.checkout.group-commit.enabled). Każdy klient to osobny gość: dodaje produkt do koszyka i składa zamówienie.
+# Wymaga działającej bazy (docker-compose up db) i produktu z dużym stanem, np.:
+#   UPDATE products SET stock = 1000000 WHERE id = 1;
+#
+#   ./mvnw -DskipTests package
+#   scripts/checkout-throughput.sh [klienci] [zamowien_na_klienta]
+
+set -euo pipefail
+
+CLIENTS="${1:-50}"
+ORDERS_PER_CLIENT="${2:-20}"
+PORT="${PORT:-9091}"
+PRODUCT_ID="${PRODUCT_ID:-1}"
+BASE="http://localhost:${PORT}"
+JAR="$(ls target/shoppingApp-*.jar | grep -v original | head -1)"
+WORK_DIR="$(mktemp -d)"
+trap 'rm -rf "$WORK_DIR"' EXIT
+
+csrf() {
+    grep -o 'name="_csrf" value="[^"]*"' | head -1 | sed 's/.*value="\([^"]*\)"/\1/'
+}
+
+client() {
+    local jar="$WORK_DIR/cookies-$1"
+    local confirmed=0
+    for _ in $(seq 1 "$ORDERS_PER_CLIENT"); do
+        rm -f "$jar"
+        local token key location
+        token="$(curl -s -c "$jar" -b "$jar" "$BASE/home" | csrf)"
+        curl -s -o /dev/null -c "$jar" -b "$jar" --data-urlencode "_csrf=$token" "$BASE/cart/add/$PRODUCT_ID"
+        local page
+        page="$(curl -s -c "$jar" -b "$jar" "$BASE/cart/checkout")"
+        token="$(echo "$page" | csrf)"
+        key="$(echo "$page" | grep -o 'name="idempotencyKey" value="[^"]*"' | sed 's/.*value="\([^"]*\)"/\1/')"
+        location="$(curl -s -o /dev/null -w '%{redirect_url}' -c "$jar" -b "$jar" \
+            --data-urlencode "_csrf=$token" --data-urlencode "idempotencyKey=$key" \
+            --data-urlencode "firstName=Jan" --data-urlencode "lastName=Kowalski" \
+            --data-urlencode "address=Testowa 1" --data-urlencode "phone=123456789" \
+            "$BASE/cart/checkout/submit")"
+        if [[ "$location" == */home ]]; then
+            confirmed=$(( confirmed + 1 ))
+        fi
+    done
+    echo "$confirmed" > "$WORK_DIR/result-$1"
+}
+
+measure() {
+    local label="$1"
+    shift
+    java -jar "$JAR" --server.port="$PORT" "$@" > "$WORK_DIR/$label.log" 2>&1 &
+    local pid=$!
+    until [ "$(curl -s -o /dev/null -w '%{http_code}' "$BASE/home" || true)" = "200" ]; do
+        if ! kill -0 "$pid" 2>/dev/null; then
+            echo "$label: aplikacja nie wystartowała, log: $WORK_DIR/$label.log" >&2
+            exit 1
+        fi
+        sleep 0.2
+    done
+
+    rm -f "$WORK_DIR"/result-*
+    local start
+    start="$(date +%s%N)"
+    local clients=()
+    for c in $(seq 1 "$CLIENTS"); do
+        client "$c" &
+        clients+=($!)
+    done
+    wait "${clients[@]}"
+    local elapsed_ms=$(( ($(date +%s%N) - start) / 1000000 ))
+
+    kill "$pid" 2>/dev/null || true
+    wait "$pid" 2>/dev/null || true
+
+    local confirmed
+    confirmed="$(awk '{ sum += $1 } END { print sum + 0 }' "$WORK_DIR"/result-*)"
+    # Czas obejmuje cały scenariusz gościa (strona, koszyk, formularz), nie tylko samo złożenie zamówienia
+    echo "$label: $confirmed / $(( CLIENTS * ORDERS_PER_CLIENT )) potwierdzonych w ${elapsed_ms} ms" \
+        "($(( confirmed * 1000 / (elapsed_ms > 0 ? elapsed_ms : 1) )) zamówień/s)"
+}
+
+measure "bezposrednio" --app.checkout.group-commit.enabled=false
+measure "grupowy-commit" --app.checkout.group-commit.enabled=true
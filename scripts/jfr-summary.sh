@@ -0,0 +1,17 @@
+#!/usr/bin/env bash
+# Tabele opóźnień i alokacji dla operacji aplikacji z nagrania JFR (profil jfr/shoppingapp.jfc).
+# Nagranie z działającej aplikacji:
+#   jcmd <pid> JFR.start settings=default settings=jfr/shoppingapp.jfc name=shop
+#   jcmd <pid> JFR.dump name=shop filename=shop.jfr
+#
+#   scripts/jfr-summary.sh shop.jfr
+
+set -euo pipefail
+
+if [ $# -ne 1 ]; then
+    echo "Użycie: $0 <nagranie.jfr>" >&2
+    exit 1
+fi
+
+ROOT="$(cd "$(dirname "$0")/.." && pwd)"
+exec java -Dfile.encoding=UTF-8 "$ROOT/src/main/java/com/example/shoppingapp/cli/JfrSummary.java" "$1"
@@ -0,0 +1,41 @@
+#!/usr/bin/env bash
+# Porównanie czasu startu aplikacji: schemat aktualizowany przez Hibernate (ddl-auto=update)
+# kontra migracje Flyway + ddl-auto=validate. Wymaga zbudowanego JAR-a i działającej bazy (docker-compose up db).
+#
+#   ./mvnw -DskipTests package
+#   scripts/startup-time.sh [liczba_prob]
+
+set -euo pipefail
+
+RUNS="${1:-5}"
+JAR="${JAR:-$(ls target/shoppingApp-*.jar | grep -v plain | head -1)}"
+
+measure() {
+    local label="$1"
+    shift
+    local total=0
+    for i in $(seq 1 "$RUNS"); do
+        local log
+        log="$(mktemp)"
+        java -jar "$JAR" "$@" > "$log" 2>&1 &
+        local pid=$!
+        until grep -q "Started ShoppingApplication in" "$log" || ! kill -0 "$pid" 2>/dev/null; do
+            sleep 0.2
+        done
+        local seconds
+        seconds="$(grep -o "Started ShoppingApplication in [0-9.]*" "$log" | awk '{print $4}')"
+        kill "$pid" 2>/dev/null || true
+        wait "$pid" 2>/dev/null || true
+        rm -f "$log"
+        if [ -z "$seconds" ]; then
+            echo "$label: start nie powiódł się (próba $i)" >&2
+            exit 1
+        fi
+        echo "$label #$i: ${seconds}s"
+        total="$(echo "$total + $seconds" | bc -l)"
+    done
+    printf '%s: średnio %.3fs\n' "$label" "$(echo "$total / $RUNS" | bc -l)"
+}
+
+measure "ddl-auto=update" --spring.jpa.hibernate.ddl-auto=update --spring.flyway.enabled=false
+measure "flyway+validate"
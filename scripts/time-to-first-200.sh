@@ -0,0 +1,42 @@
+#!/usr/bin/env bash
+# Czas od uruchomienia JVM do pierwszej odpowiedzi 200 na /home:
+# zwykły JAR kontra profil fast-startup (AOT + archiwum CDS). Wymaga działającej bazy (docker-compose up db).
+#
+#   ./mvnw -Pfast-startup -DskipTests package
+#   scripts/time-to-first-200.sh [liczba_prob]
+
+set -euo pipefail
+
+RUNS="${1:-5}"
+PORT="${PORT:-9091}"
+URL="http://localhost:${PORT}/home"
+APP_DIR="${APP_DIR:-target/application}"
+JAR="$(ls "$APP_DIR"/shoppingApp-*.jar | head -1)"
+
+measure() {
+    local label="$1"
+    shift
+    local total=0
+    for i in $(seq 1 "$RUNS"); do
+        local start
+        start="$(date +%s%N)"
+        java "$@" -jar "$JAR" --server.port="$PORT" > /dev/null 2>&1 &
+        local pid=$!
+        until [ "$(curl -s -o /dev/null -w '%{http_code}' "$URL" || true)" = "200" ]; do
+            if ! kill -0 "$pid" 2>/dev/null; then
+                echo "$label: aplikacja zakończyła się przed odpowiedzią 200 (próba $i)" >&2
+                exit 1
+            fi
+            sleep 0.05
+        done
+        local elapsed_ms=$(( ($(date +%s%N) - start) / 1000000 ))
+        kill "$pid" 2>/dev/null || true
+        wait "$pid" 2>/dev/null || true
+        echo "$label #$i: ${elapsed_ms} ms"
+        total=$(( total + elapsed_ms ))
+    done
+    echo "$label: średnio $(( total / RUNS )) ms"
+}
+
+measure "jar"
+measure "aot+cds" -XX:SharedArchiveFile="$APP_DIR/application.jsa" -Dspring.aot.enabled=true
@@ -0,0 +1,126 @@
+package com.example.shoppingapp.api;
+
+import com.example.shoppingapp.dto.OrderDto;
+import com.example.shoppingapp.dto.OrderItemDto;
+import com.example.shoppingapp.dto.ProductDto;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Czas serializacji odpowiedzi /api/products i /api/orders w JSON, CBOR i Smile - bez sieci, filtrów i bazy.
+// Mappery jak w ApiFormatConfig (ten sam builder, filtr ?fields=). Rozmiary odpowiedzi: scripts/api-payload-size.sh.
+// Uruchomienie: ./mvnw -Pbenchmarks -DskipTests compile exec:exec@api-format-benchmark
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApiFormatBenchmark {
+
+    @Param({"json", "cbor", "smile"})
+    public String format;
+
+    @Param("1000")
+    public int productCount;
+
+    @Param("200")
+    public int orderCount;
+
+    @Param("5")
+    public int itemsPerOrder;
+
+    private List<ProductDto> productList;
+    private List<OrderDto> orderList;
+    private ObjectWriter writer;
+    private ObjectWriter productFieldsWriter;
+    private ObjectWriter orderFieldsWriter;
+
+    @Setup
+    public void setUp() {
+        JsonFactory factory = switch (format) {
+            case "json" -> new JsonFactory();
+            case "cbor" -> new CBORFactory();
+            case "smile" -> new SmileFactory();
+            default -> throw new IllegalArgumentException("Nieznany format: " + format);
+        };
+        // Jak ObjectMapper Spring Boota: moduły z classpath (daty java.time), daty jako tekst ISO
+        writer = Jackson2ObjectMapperBuilder.json()
+                .factory(factory)
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .filters(FieldSelection.ALL_FIELDS)
+                .build()
+                .writer();
+        productFieldsWriter = writer.with(new SimpleFilterProvider()
+                .addFilter(FieldSelection.FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(Set.of("id", "price", "stock"))));
+        orderFieldsWriter = writer.with(new SimpleFilterProvider()
+                .addFilter(FieldSelection.FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(Set.of("id", "status", "totalPrice"))));
+
+        Random random = new Random(42);
+        productList = new ArrayList<>(productCount);
+        for (long id = 1; id <= productCount; id++) {
+            productList.add(new ProductDto(id, "Produkt " + id, "Opis produktu " + id + " do porównania formatów odpowiedzi API",
+                    BigDecimal.valueOf(100 + random.nextInt(500_000), 2), random.nextInt(1_000), "/images/product-" + id + ".jpg"));
+        }
+        orderList = new ArrayList<>(orderCount);
+        LocalDateTime orderDate = LocalDateTime.of(2024, 1, 1, 12, 0);
+        for (long id = 1; id <= orderCount; id++) {
+            List<OrderItemDto> items = new ArrayList<>(itemsPerOrder);
+            BigDecimal total = BigDecimal.ZERO;
+            for (int i = 0; i < itemsPerOrder; i++) {
+                ProductDto product = productList.get(random.nextInt(productList.size()));
+                int quantity = 1 + random.nextInt(3);
+                BigDecimal lineTotal = product.price().multiply(BigDecimal.valueOf(quantity));
+                items.add(new OrderItemDto(id, product.id(), product.name(), quantity, product.price(), lineTotal));
+                total = total.add(lineTotal);
+            }
+            orderList.add(new OrderDto(id, 1 + id % 50, "CONFIRMED", orderDate.plusMinutes(id), total,
+                    "Jan Kowalski", "500600700", "ul. Przykładowa 1, Kraków", items));
+        }
+    }
+
+    @Benchmark
+    public byte[] products() throws JsonProcessingException {
+        return writer.writeValueAsBytes(productList);
+    }
+
+    @Benchmark
+    public byte[] productsSelectedFields() throws JsonProcessingException {
+        return productFieldsWriter.writeValueAsBytes(productList);
+    }
+
+    @Benchmark
+    public byte[] orders() throws JsonProcessingException {
+        return writer.writeValueAsBytes(orderList);
+    }
+
+    @Benchmark
+    public byte[] ordersSelectedFields() throws JsonProcessingException {
+        return orderFieldsWriter.writeValueAsBytes(orderList);
+    }
+}
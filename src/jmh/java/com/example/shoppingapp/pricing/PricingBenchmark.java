@@ -0,0 +1,80 @@
+package com.example.shoppingapp.pricing;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Wycena koszyka przez CompiledRules oraz koszt kompilacji reguł (przeładowanie promocji).
+// Uruchomienie: ./mvnw -Pbenchmarks -DskipTests compile exec:exec@pricing-benchmark
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingBenchmark {
+
+    private static final int PRODUCTS = 2_000;
+
+    @Param("1000")
+    public int ruleCount;
+
+    @Param("50")
+    public int lines;
+
+    private List<PromotionRule> rules;
+    private CompiledRules compiled;
+    private PricedCart cart;
+    private long now;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        rules = new ArrayList<>(ruleCount);
+        for (int i = 0; i < ruleCount; i++) {
+            long productId = 1 + random.nextInt(PRODUCTS);
+            int kind = random.nextInt(10);
+            if (kind < 7) {
+                rules.add(new PromotionRule(i, "produkt-" + i, PromotionRule.Kind.PRODUCT, productId, 0,
+                        1 + random.nextInt(3), 0, 500 + random.nextInt(2_000), 0, Long.MIN_VALUE, Long.MAX_VALUE));
+            } else if (kind < 9) {
+                rules.add(new PromotionRule(i, "zestaw-" + i, PromotionRule.Kind.BUNDLE, productId,
+                        1 + random.nextInt(PRODUCTS), 1, 0, 0, 500 + random.nextInt(5_000), Long.MIN_VALUE, Long.MAX_VALUE));
+            } else {
+                rules.add(new PromotionRule(i, "koszyk-" + i, PromotionRule.Kind.CART_THRESHOLD, 0, 0, 1,
+                        10_000L * (1 + random.nextInt(100)), 300 + random.nextInt(1_000), 0, Long.MIN_VALUE, Long.MAX_VALUE));
+            }
+        }
+        compiled = CompiledRules.compile(rules);
+
+        cart = new PricedCart();
+        for (int i = 0; i < lines; i++) {
+            cart.add(1 + random.nextInt(PRODUCTS), 1_000 + random.nextInt(500_000), 1 + random.nextInt(5));
+        }
+        now = System.currentTimeMillis();
+    }
+
+    @Benchmark
+    public long evaluate() {
+        compiled.evaluate(cart, now);
+        return cart.total();
+    }
+
+    @Benchmark
+    public CompiledRules compile() {
+        return CompiledRules.compile(rules);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.shoppingapp.api;
+
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.util.Set;
+
+// Wybór pól odpowiedzi (?fields=id,price,stock) - działa tak samo dla JSON, CBOR i Smile.
+// Filtr dotyczy tylko klas oznaczonych @JsonFilter(FieldSelection.FILTER), czyli pól najwyższego poziomu DTO.
+public final class FieldSelection {
+
+    public static final String FILTER = "fields";
+
+    // Bez ?fields= (i poza kontrolerami API) filtr przepuszcza wszystkie pola
+    static final FilterProvider ALL_FIELDS = new SimpleFilterProvider()
+            .addFilter(FILTER, SimpleBeanPropertyFilter.serializeAll());
+
+    private FieldSelection() {
+    }
+
+    public static MappingJacksonValue apply(Object body, Set<String> fields) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(fields == null || fields.isEmpty()
+                ? ALL_FIELDS
+                : new SimpleFilterProvider().addFilter(FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(fields)));
+        return value;
+    }
+}
@@ -0,0 +1,295 @@
+package com.example.shoppingapp.assets;
+
+import com.aayushatharva.brotli4j.Brotli4jLoader;
+import com.aayushatharva.brotli4j.encoder.Encoder;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+// Przy starcie aplikacji przygotowuje zasoby statyczne do serwowania spod /assets/:
+// CSS i JS dostają w nazwie skrót zawartości oraz wersje .gz i .br, zdjęcia produktów - miniatury JPEG i WebP.
+// Nazwa zmienia się razem z zawartością, więc pliki mogą być cache'owane przez przeglądarkę bezterminowo.
+// Szablony pobierają adresy przez ${@assets.url('/css/home.css')} i ${@assets.thumbnail(product.imageUrl)}.
+@Component("assets")
+public class AssetPipeline {
+
+    public static final String URL_PREFIX = "/assets/";
+
+    private static final Logger log = LoggerFactory.getLogger(AssetPipeline.class);
+
+    private static final int HASH_LENGTH = 10;
+
+    private final ResourcePatternResolver resourceResolver;
+    private final boolean enabled;
+    private final Path outputDir;
+    private final int thumbnailWidth;
+    private final float imageQuality;
+
+    // Wypełniane raz przy starcie, potem tylko odczytywane
+    private volatile Map<String, String> urls = Map.of();
+    private volatile Map<String, String> thumbnails = Map.of();
+    private volatile Map<String, String> webpThumbnails = Map.of();
+    private volatile Map<String, Asset> files = Map.of();
+
+    public AssetPipeline(ResourcePatternResolver resourceResolver,
+                         @Value("${app.assets.enabled:true}") boolean enabled,
+                         @Value("${app.assets.output-dir:${java.io.tmpdir}/shoppingapp-assets}") Path outputDir,
+                         @Value("${app.assets.thumbnail-width:480}") int thumbnailWidth,
+                         @Value("${app.assets.image-quality:0.8}") float imageQuality) {
+        this.resourceResolver = resourceResolver;
+        this.enabled = enabled;
+        this.outputDir = outputDir;
+        this.thumbnailWidth = thumbnailWidth;
+        this.imageQuality = imageQuality;
+    }
+
+    @PostConstruct
+    public void build() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        // Wtyczki ImageIO (np. zapis WebP) z classpath aplikacji, a nie tylko z JDK
+        ImageIO.scanForPlugins();
+        Files.createDirectories(outputDir);
+
+        Build build = new Build();
+        for (Resource resource : resourceResolver.getResources("classpath:/static/css/*.css")) {
+            build.text("css", resource);
+        }
+        for (Resource resource : resourceResolver.getResources("classpath:/static/js/*.js")) {
+            build.text("js", resource);
+        }
+        for (Resource resource : resourceResolver.getResources("classpath:/static/images/*.jpg")) {
+            build.image("images", resource);
+        }
+
+        urls = Map.copyOf(build.urls);
+        thumbnails = Map.copyOf(build.thumbnails);
+        webpThumbnails = Map.copyOf(build.webpThumbnails);
+        files = Map.copyOf(build.files);
+        log.info("Zasoby statyczne: {} plików w {} ({} ms, brotli: {}, webp: {})", files.size(), outputDir,
+                (System.nanoTime() - start) / 1_000_000, Brotli4jLoader.isAvailable(), !webpThumbnails.isEmpty());
+    }
+
+    // Adres wersji z odciskiem; dla nieznanej ścieżki (albo wyłączonego potoku) zwraca ją bez zmian
+    public String url(String path) {
+        return urls.getOrDefault(path, path);
+    }
+
+    public String thumbnail(String imageUrl) {
+        return thumbnails.getOrDefault(imageUrl, url(imageUrl));
+    }
+
+    // null, gdy w środowisku nie ma kodera WebP - szablon pomija wtedy <source type="image/webp">
+    public String webpThumbnail(String imageUrl) {
+        return webpThumbnails.get(imageUrl);
+    }
+
+    // name - ścieżka pod /assets/, np. css/home-1a2b3c4d5e.css
+    public Asset find(String name) {
+        return files.get(name);
+    }
+
+    public record Asset(Path path, MediaType contentType, Path gzip, Path brotli) {
+    }
+
+    private class Build {
+
+        private final Map<String, String> urls = new HashMap<>();
+        private final Map<String, String> thumbnails = new HashMap<>();
+        private final Map<String, String> webpThumbnails = new HashMap<>();
+        private final Map<String, Asset> files = new HashMap<>();
+
+        void text(String dir, Resource resource) throws IOException {
+            byte[] content = resource.getContentAsByteArray();
+            String name = dir + "/" + fingerprint(resource.getFilename(), hash(content));
+            Path path = write(name, content);
+            Path gzip = write(name + ".gz", content, AssetPipeline::gzip);
+            Path brotli = Brotli4jLoader.isAvailable() ? write(name + ".br", content, AssetPipeline::brotli) : null;
+            add("/" + dir + "/" + resource.getFilename(), name, path, gzip, brotli);
+        }
+
+        void image(String dir, Resource resource) throws IOException {
+            String filename = resource.getFilename();
+            byte[] content = resource.getContentAsByteArray();
+            String hash = hash(content);
+            String name = dir + "/" + fingerprint(filename, hash);
+            add("/" + dir + "/" + filename, name, write(name, content), null, null);
+
+            // Nazwy miniatur zależą od skrótu oryginału i szerokości, więc po restarcie nie trzeba ich generować ponownie
+            String base = dir + "/" + baseName(filename) + "-" + thumbnailWidth + "-" + hash;
+            String jpegName = base + ".jpg";
+            String webpName = base + ".webp";
+            boolean jpegExists = Files.exists(outputDir.resolve(jpegName));
+            boolean webpExists = Files.exists(outputDir.resolve(webpName));
+
+            BufferedImage thumbnail = null;
+            if (!jpegExists || (!webpExists && ImageIO.getImageWritersByMIMEType("image/webp").hasNext())) {
+                BufferedImage image = ImageIO.read(new ByteArrayInputStream(content));
+                if (image == null) {
+                    log.warn("Nie udało się odczytać obrazu {}", filename);
+                    return;
+                }
+                thumbnail = resize(image, thumbnailWidth);
+            }
+
+            if (jpegExists || writeImage(jpegName, thumbnail, ImageIO.getImageWritersByFormatName("jpeg"))) {
+                thumbnails.put("/" + dir + "/" + filename, URL_PREFIX + jpegName);
+                files.put(jpegName, new Asset(outputDir.resolve(jpegName), MediaType.IMAGE_JPEG, null, null));
+            }
+            if (webpExists || writeImage(webpName, thumbnail, ImageIO.getImageWritersByMIMEType("image/webp"))) {
+                webpThumbnails.put("/" + dir + "/" + filename, URL_PREFIX + webpName);
+                files.put(webpName, new Asset(outputDir.resolve(webpName), MediaType.parseMediaType("image/webp"), null, null));
+            }
+        }
+
+        private void add(String path, String name, Path file, Path gzip, Path brotli) {
+            MediaType contentType = MediaTypeFactory.getMediaType(name).orElse(MediaType.APPLICATION_OCTET_STREAM);
+            urls.put(path, URL_PREFIX + name);
+            files.put(name, new Asset(file, contentType, gzip, brotli));
+        }
+
+        private boolean writeImage(String name, BufferedImage image, Iterator<ImageWriter> writers) throws IOException {
+            byte[] encoded = encode(image, writers, imageQuality);
+            if (encoded == null) {
+                return false;
+            }
+            write(name, encoded);
+            return true;
+        }
+    }
+
+    private Path write(String name, byte[] content) throws IOException {
+        return write(name, content, bytes -> bytes);
+    }
+
+    // Plik o danej nazwie ma zawsze tę samą zawartość (nazwa zawiera skrót), więc istniejący nie jest nadpisywany
+    private Path write(String name, byte[] content, Encoding encoding) throws IOException {
+        Path path = outputDir.resolve(name);
+        if (!Files.exists(path)) {
+            Files.createDirectories(path.getParent());
+            Path temp = Files.createTempFile(path.getParent(), ".asset", null);
+            Files.write(temp, encoding.encode(content));
+            Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE);
+        }
+        return path;
+    }
+
+    private interface Encoding {
+        byte[] encode(byte[] content) throws IOException;
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(content.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(content);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] brotli(byte[] content) throws IOException {
+        return Encoder.compress(content, new Encoder.Parameters().setQuality(11));
+    }
+
+    private static BufferedImage resize(BufferedImage image, int width) {
+        int targetWidth = Math.min(width, image.getWidth());
+        int targetHeight = Math.max(1, Math.round((float) image.getHeight() * targetWidth / image.getWidth()));
+        BufferedImage resized = new BufferedImage(targetWidth, targetHeight, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = resized.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            graphics.drawImage(image, 0, 0, targetWidth, targetHeight, null);
+        } finally {
+            graphics.dispose();
+        }
+        return resized;
+    }
+
+    private static byte[] encode(BufferedImage image, Iterator<ImageWriter> writers, float quality) throws IOException {
+        if (!writers.hasNext()) {
+            return null;
+        }
+        ImageWriter writer = writers.next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (param.canWriteCompressed()) {
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                String[] types = param.getCompressionTypes();
+                if (types != null && param.getCompressionType() == null) {
+                    param.setCompressionType(lossyType(types));
+                }
+                param.setCompressionQuality(quality);
+            }
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static String lossyType(String[] types) {
+        for (String type : types) {
+            if (type.toLowerCase().contains("lossy")) {
+                return type;
+            }
+        }
+        return types[0];
+    }
+
+    private static String fingerprint(String filename, String hash) {
+        int dot = filename.lastIndexOf('.');
+        return dot < 0 ? filename + "-" + hash : filename.substring(0, dot) + "-" + hash + filename.substring(dot);
+    }
+
+    private static String baseName(String filename) {
+        int dot = filename.lastIndexOf('.');
+        return dot < 0 ? filename : filename.substring(0, dot);
+    }
+
+    private static String hash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return HexFormat.of().formatHex(digest).substring(0, HASH_LENGTH);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.shoppingapp.cli;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Podsumowanie nagrania JFR ze zdarzeniami aplikacji (profil jfr/shoppingapp.jfc): opóźnienia każdej operacji
+// oraz alokacje - próbki jdk.ObjectAllocationSample przypisane do operacji trwającej w tym samym wątku.
+// Tylko klasy JDK, więc działa bez kontekstu Springa i bez budowania projektu:
+//   java src/main/java/com/example/shoppingapp/cli/JfrSummary.java nagranie.jfr
+public final class JfrSummary {
+
+    private static final String PREFIX = "com.example.shoppingapp.";
+    private static final String ALLOCATION_SAMPLE = "jdk.ObjectAllocationSample";
+
+    // Zagnieżdżone operacje (np. hashowanie hasła w żądaniu) - szukamy najgłębszej wśród kilku ostatnich
+    private static final int MAX_NESTING = 8;
+
+    private final Map<String, Operation> operations = new TreeMap<>();
+    private final Map<Long, List<Interval>> intervalsByThread = new HashMap<>();
+    private final List<Sample> samples = new ArrayList<>();
+    private long unattributedBytes;
+
+    private JfrSummary() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Użycie: JfrSummary <nagranie.jfr>");
+            System.exit(1);
+        }
+        JfrSummary summary = new JfrSummary();
+        summary.read(Path.of(args[0]));
+        summary.attributeAllocations();
+        summary.print();
+    }
+
+    private void read(Path file) throws IOException {
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                RecordedEvent event = recording.readEvent();
+                String type = event.getEventType().getName();
+                if (type.equals(ALLOCATION_SAMPLE)) {
+                    RecordedThread thread = event.getThread();
+                    if (thread != null) {
+                        samples.add(new Sample(thread.getJavaThreadId(), nanos(event.getStartTime()), event.getLong("weight")));
+                    }
+                } else if (type.startsWith(PREFIX)) {
+                    readOperation(type.substring(PREFIX.length()), event);
+                }
+            }
+        }
+    }
+
+    private void readOperation(String type, RecordedEvent event) {
+        String name = type;
+        if (event.hasField("operation") && event.getString("operation") != null) {
+            name += " " + event.getString("operation");
+        } else if (event.hasField("outcome") && event.getString("outcome") != null) {
+            name += " " + event.getString("outcome");
+        }
+
+        Operation operation = operations.computeIfAbsent(name, Operation::new);
+        operation.add(event);
+
+        RecordedThread thread = event.getThread();
+        if (thread != null) {
+            intervalsByThread.computeIfAbsent(thread.getJavaThreadId(), id -> new ArrayList<>())
+                    .add(new Interval(nanos(event.getStartTime()), nanos(event.getEndTime()), operation));
+        }
+    }
+
+    private void attributeAllocations() {
+        intervalsByThread.values().forEach(intervals -> intervals.sort(Comparator.comparingLong(Interval::start)));
+        for (Sample sample : samples) {
+            Interval interval = find(intervalsByThread.get(sample.threadId()), sample.time());
+            if (interval != null) {
+                interval.operation().allocatedBytes += sample.weight();
+            } else {
+                unattributedBytes += sample.weight();
+            }
+        }
+    }
+
+    // Ostatni przedział rozpoczęty przed próbką, który jeszcze trwał w chwili próbki
+    private static Interval find(List<Interval> intervals, long time) {
+        if (intervals == null) {
+            return null;
+        }
+        int low = 0;
+        int high = intervals.size() - 1;
+        int last = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (intervals.get(middle).start() <= time) {
+                last = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        for (int i = last; i >= 0 && i > last - MAX_NESTING; i--) {
+            if (intervals.get(i).end() >= time) {
+                return intervals.get(i);
+            }
+        }
+        return null;
+    }
+
+    private void print() {
+        if (operations.isEmpty()) {
+            System.out.println("Brak zdarzeń aplikacji - czy nagranie używało profilu jfr/shoppingapp.jfc?");
+            return;
+        }
+
+        System.out.println("Opóźnienia operacji (ms)");
+        System.out.printf("%-40s %8s %9s %9s %9s %9s%n", "operacja", "liczba", "p50", "p95", "p99", "max");
+        for (Operation operation : operations.values()) {
+            long[] durations = operation.sortedDurations();
+            System.out.printf(Locale.ROOT, "%-40s %8d %9.2f %9.2f %9.2f %9.2f%n", operation.name, durations.length,
+                    millis(percentile(durations, 50)), millis(percentile(durations, 95)),
+                    millis(percentile(durations, 99)), millis(durations[durations.length - 1]));
+        }
+
+        System.out.println();
+        System.out.println("Alokacje (szacunek z próbek " + ALLOCATION_SAMPLE + ")");
+        if (samples.isEmpty()) {
+            System.out.println("Brak próbek alokacji w nagraniu.");
+        } else {
+            System.out.printf("%-40s %12s %14s%n", "operacja", "łącznie MB", "na operację KB");
+            for (Operation operation : operations.values()) {
+                System.out.printf(Locale.ROOT, "%-40s %12.1f %14.1f%n", operation.name,
+                        operation.allocatedBytes / (1024.0 * 1024.0),
+                        operation.allocatedBytes / 1024.0 / operation.durations.size());
+            }
+            System.out.printf(Locale.ROOT, "%-40s %12.1f%n", "(poza operacjami)", unattributedBytes / (1024.0 * 1024.0));
+            // Zamówienia z jednej paczki grupowego commitu mają wspólny przedział - alokacje trafiają do jednego z nich
+        }
+
+        List<Operation> checkouts = operations.values().stream().filter(operation -> operation.checkout).toList();
+        if (!checkouts.isEmpty()) {
+            System.out.println();
+            System.out.println("Składanie zamówień (średnie)");
+            System.out.printf("%-40s %8s %9s %12s %12s%n", "wynik", "pozycje", "paczka", "stany ms", "zapis ms");
+            for (Operation operation : checkouts) {
+                int count = operation.durations.size();
+                System.out.printf(Locale.ROOT, "%-40s %8.1f %9.1f %12.3f %12.3f%n", operation.name,
+                        (double) operation.lines / count, (double) operation.batchSize / count,
+                        millis(operation.stockCheckNanos) / count, millis(operation.writeNanos) / count);
+            }
+        }
+    }
+
+    private static long percentile(long[] sorted, int percent) {
+        int index = (int) Math.ceil(percent / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static long nanos(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+
+    private static final class Operation {
+
+        private final String name;
+        private final List<Long> durations = new ArrayList<>();
+        private long allocatedBytes;
+
+        private boolean checkout;
+        private long lines;
+        private long batchSize;
+        private long stockCheckNanos;
+        private long writeNanos;
+
+        Operation(String name) {
+            this.name = name;
+        }
+
+        void add(RecordedEvent event) {
+            durations.add(event.getDuration().toNanos());
+            if (event.hasField("stockCheckTime")) {
+                checkout = true;
+                lines += event.getInt("lines");
+                batchSize += event.getInt("batchSize");
+                stockCheckNanos += nanosOf(event.getDuration("stockCheckTime"));
+                writeNanos += nanosOf(event.getDuration("writeTime"));
+            }
+        }
+
+        long[] sortedDurations() {
+            long[] sorted = durations.stream().mapToLong(Long::longValue).toArray();
+            Arrays.sort(sorted);
+            return sorted;
+        }
+
+        private static long nanosOf(Duration duration) {
+            return duration != null ? duration.toNanos() : 0;
+        }
+    }
+
+    private record Interval(long start, long end, Operation operation) {
+    }
+
+    private record Sample(long threadId, long time, long weight) {
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.shoppingapp.cli;
+
+import com.example.shoppingapp.dto.ImportResult;
+import com.example.shoppingapp.service.ProductImportService;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Import katalogu z linii poleceń, bez serwera HTTP:
+//   java -jar shoppingApp.jar --spring.main.web-application-type=none --import.file=katalog.csv [--import.chunk-size=5000]
+@Component
+@ConditionalOnProperty(name = "import.file")
+public class ProductImportCommand implements ApplicationRunner {
+
+    private final ProductImportService productImportService;
+    private final ConfigurableApplicationContext context;
+    private final Environment environment;
+
+    public ProductImportCommand(ProductImportService productImportService, ConfigurableApplicationContext context,
+                                Environment environment) {
+        this.productImportService = productImportService;
+        this.context = context;
+        this.environment = environment;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        Path file = Path.of(environment.getRequiredProperty("import.file"));
+        Integer chunkSize = environment.getProperty("import.chunk-size", Integer.class);
+
+        ImportResult result;
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            result = productImportService.importProducts(reader, ProductImportService.formatOf(file.getFileName().toString()), chunkSize);
+        }
+
+        System.out.printf("Zaimportowano %d wierszy (%d odrzuconych) w %d porcjach, %d ms, %.1f wierszy/s%n",
+                result.rows(), result.rejected(), result.chunks(), result.elapsedMs(), result.rowsPerSecond());
+        result.errors().forEach(error -> System.out.println("  " + error));
+
+        System.exit(SpringApplication.exit(context, () -> result.rejected() > 0 ? 2 : 0));
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.shoppingapp.controller;
+
+import com.example.shoppingapp.assets.AssetPipeline;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+// Zasoby z odciskiem w nazwie (/assets/...) - niezmienne, więc cache'owane przez rok bez rewalidacji.
+// Większe pliki wysyła Tomcat przez sendfile po zakończeniu obsługi żądania, bez kopiowania przez JVM.
+@Controller
+public class AssetController {
+
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    // Jak w DefaultServlet Tomcata - małe pliki taniej zapisać od razu niż oddawać do sendfile
+    private static final long SENDFILE_MIN_SIZE = 48 * 1024;
+
+    private static final String CACHE_CONTROL = CacheControl.maxAge(Duration.ofDays(365))
+            .cachePublic()
+            .immutable()
+            .getHeaderValue();
+
+    private final AssetPipeline assetPipeline;
+
+    public AssetController(AssetPipeline assetPipeline) {
+        this.assetPipeline = assetPipeline;
+    }
+
+    @GetMapping("/assets/**")
+    public void serve(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        String name = request.getRequestURI().substring(request.getContextPath().length() + AssetPipeline.URL_PREFIX.length());
+        AssetPipeline.Asset asset = assetPipeline.find(name);
+        if (asset == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        Path path = asset.path();
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (asset.brotli() != null && accepts(acceptEncoding, "br")) {
+            path = asset.brotli();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "br");
+        } else if (asset.gzip() != null && accepts(acceptEncoding, "gzip")) {
+            path = asset.gzip();
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        if (asset.gzip() != null || asset.brotli() != null) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+
+        long length = Files.size(path);
+        response.setContentType(asset.contentType().toString());
+        response.setContentLengthLong(length);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+
+        if (length >= SENDFILE_MIN_SIZE && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, length);
+        } else {
+            Files.copy(path, response.getOutputStream());
+        }
+    }
+
+    private static boolean accepts(String acceptEncoding, String encoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            if (tokens[0].trim().equalsIgnoreCase(encoding)) {
+                return tokens.length < 2 || !tokens[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+}
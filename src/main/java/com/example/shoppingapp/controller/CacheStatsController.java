@@ -0,0 +1,59 @@
+package com.example.shoppingapp.controller;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.NaturalIdStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/cache")
+public class CacheStatsController {
+
+    private final Statistics statistics;
+
+    public CacheStatsController(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    // Statystyki cache drugiego poziomu: trafienia, chybienia i zapisy w każdym regionie
+    @GetMapping("/stats")
+    public Map<String, Object> getStats() {
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getDomainDataRegionStatistics(regionName);
+            if (region == null) {
+                continue;
+            }
+            regions.put(regionName, regionStats(region.getHitCount(), region.getMissCount(), region.getPutCount()));
+        }
+
+        Map<String, Object> naturalIds = new LinkedHashMap<>();
+        NaturalIdStatistics userNaturalId = statistics.getNaturalIdStatistics("com.example.shoppingapp.model.User");
+        naturalIds.put("com.example.shoppingapp.model.User", regionStats(
+                userNaturalId.getCacheHitCount(), userNaturalId.getCacheMissCount(), userNaturalId.getCachePutCount()));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("regions", regions);
+        result.put("naturalIds", naturalIds);
+        result.put("queryCache", regionStats(
+                statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount(), statistics.getQueryCachePutCount()));
+        result.put("secondLevelCache", regionStats(
+                statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount(), statistics.getSecondLevelCachePutCount()));
+        return result;
+    }
+
+    private Map<String, Long> regionStats(long hits, long misses, long puts) {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("hits", hits);
+        stats.put("misses", misses);
+        stats.put("puts", puts);
+        return stats;
+    }
+}
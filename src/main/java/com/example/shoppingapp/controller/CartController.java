@@ -1,10 +1,19 @@
 package com.example.shoppingapp.controller;
 
+import com.example.shoppingapp.dto.CheckoutCommand;
+import com.example.shoppingapp.dto.CheckoutLine;
+import com.example.shoppingapp.dto.CheckoutResult;
 import com.example.shoppingapp.model.*;
+import com.example.shoppingapp.pricing.PricingEngine;
 import com.example.shoppingapp.repository.OrderRepository;
 import com.example.shoppingapp.repository.ProductRepository;
 import com.example.shoppingapp.repository.UserRepository;
+import com.example.shoppingapp.service.CheckoutPipeline;
+import com.example.shoppingapp.service.RecommendationEngine;
+import com.example.shoppingapp.session.GuestCart;
+import com.example.shoppingapp.session.GuestCartStore;
 import jakarta.servlet.http.HttpSession;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Controller;
@@ -16,8 +25,15 @@ import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.math.BigDecimal;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 
 @Controller
 @RequestMapping("/cart")
@@ -26,11 +42,24 @@ public class CartController {
     private final ProductRepository productRepository;
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
-
-    public CartController(ProductRepository productRepository, OrderRepository orderRepository, UserRepository userRepository) {
+    private final CheckoutPipeline checkoutPipeline;
+    private final RecommendationEngine recommendationEngine;
+    private final PricingEngine pricingEngine;
+    private final GuestCartStore guestCarts;
+    private final int recommendationLimit;
+
+    public CartController(ProductRepository productRepository, OrderRepository orderRepository, UserRepository userRepository,
+                          CheckoutPipeline checkoutPipeline, RecommendationEngine recommendationEngine,
+                          PricingEngine pricingEngine, GuestCartStore guestCarts,
+                          @Value("${app.recommendations.cart-limit:4}") int recommendationLimit) {
         this.productRepository = productRepository;
         this.orderRepository = orderRepository;
         this.userRepository = userRepository;
+        this.checkoutPipeline = checkoutPipeline;
+        this.recommendationEngine = recommendationEngine;
+        this.pricingEngine = pricingEngine;
+        this.guestCarts = guestCarts;
+        this.recommendationLimit = recommendationLimit;
     }
 
     @GetMapping
@@ -40,7 +69,12 @@ public class CartController {
         int itemCount = order.getOrderItems().size();
         session.setAttribute("itemCount", itemCount);
         model.addAttribute("itemCount", itemCount);
+        // Wycena przy każdym wyświetleniu - promocja mogła się zmienić lub wygasnąć od ostatniej zmiany koszyka
+        model.addAttribute("pricing", pricingEngine.apply(order));
         model.addAttribute("order", order);
+        model.addAttribute("recommendations", recommendationEngine.recommend(order.getOrderItems().stream()
+                .map(item -> item.getProduct().getId())
+                .collect(Collectors.toSet()), recommendationLimit));
 
         return "cart";
     }
@@ -52,7 +86,6 @@ public class CartController {
                             HttpSession session,
                             RedirectAttributes redirectAttributes) {
 
-        Order order = getOrder(userDetails, session);
         Product product = productRepository.findById(productId)
                 .orElseThrow(() -> new RuntimeException("Produkt nie znaleziony"));
 
@@ -61,11 +94,10 @@ public class CartController {
             return "redirect:/home";
         }
 
-        addOrUpdateOrderItem(order, product);
-        updateTotalPrice(order);
-        saveOrder(userDetails, session, order);
+        int itemCount = changeCart(userDetails, session,
+                order -> addOrUpdateOrderItem(order, product),
+                cart -> cart.add(product));
 
-        int itemCount = order.getOrderItems().size();
         session.setAttribute("itemCount", itemCount);
         redirectAttributes.addFlashAttribute("itemCount", itemCount);
         redirectAttributes.addFlashAttribute("message", "Produkt został dodany do koszyka!");
@@ -83,15 +115,37 @@ public class CartController {
             return "redirect:/cart";
         }
 
+        Map<Long, Product> products = findProducts(order);
+        Map<Long, BigDecimal> changedPrices = new HashMap<>();
         for (OrderItem item : order.getOrderItems()) {
-            Product product = productRepository.findById(item.getProduct().getId())
-                    .orElseThrow(() -> new RuntimeException("Produkt nie znaleziony"));
+            Product product = products.get(item.getProduct().getId());
+            if (product == null) {
+                throw new RuntimeException("Produkt nie znaleziony");
+            }
 
             if (product.getStock() < item.getQuantity()) {
                 redirectAttributes.addFlashAttribute("message",
                         "Przepraszamy, ale produkt '" + product.getName() + "' jest dostępny w ilości " + product.getStock() + " sztuk.");
                 return "redirect:/cart";
             }
+
+            // Cena w koszyku mogła się zestarzeć, jeśli przeliczenie w tle jeszcze nie dotarło do tego zamówienia
+            if (item.getPrice() == null || item.getPrice().compareTo(product.getPrice()) != 0) {
+                item.setPrice(product.getPrice());
+                changedPrices.put(product.getId(), product.getPrice());
+            }
+        }
+
+        if (!changedPrices.isEmpty()) {
+            if (userDetails != null) {
+                updateTotalPrice(order);
+                orderRepository.save(order);
+            } else {
+                guestCarts.update(session, cart -> cart.reprice(changedPrices));
+            }
+            redirectAttributes.addFlashAttribute("message",
+                    "Ceny niektórych produktów w koszyku zmieniły się. Sprawdź koszyk przed złożeniem zamówienia.");
+            return "redirect:/cart";
         }
 
         return "redirect:/cart/checkout";
@@ -101,10 +155,11 @@ public class CartController {
     public String checkout(Model model, @AuthenticationPrincipal UserDetails userDetails) {
         User user = userDetails != null ? userRepository.findByUsername(userDetails.getUsername()).orElse(null) : null;
         model.addAttribute("user", user != null ? user : new User());
+        model.addAttribute("idempotencyKey", UUID.randomUUID().toString());
         return "checkout";
     }
 
-    @Transactional
+    // Bez @Transactional - wątek żądania nie trzyma transakcji ani połączenia, czekając na wynik złożenia zamówienia
     @PostMapping("/checkout/submit")
     public String submitCheckout(@Validated(ValidationGroups.Update.class) @ModelAttribute User user,
                                  BindingResult result,
@@ -112,56 +167,51 @@ public class CartController {
                                  HttpSession session, Model model, RedirectAttributes redirectAttributes) {
         if (result.hasErrors()) {
             model.addAttribute("user", user);
+            // Poprawiony formularz to nowa próba złożenia zamówienia, więc dostaje nowy klucz
+            model.addAttribute("idempotencyKey", UUID.randomUUID().toString());
             return "checkout";
         }
 
-        Order order = getOrder(userDetails, session);
-
-        order.setContactName(user.getFirstName() + " " + user.getLastName());
-        order.setContactPhone(user.getPhone());
-        order.setContactAddress(user.getAddress());
+        // Gość zamawia konkretną migawkę koszyka - zmiany z innej karty w trakcie składania jej nie dotyczą
+        GuestCart guestCart = userDetails == null ? guestCarts.get(session) : null;
+        Order order = guestCart != null ? guestCart.toOrder() : getOrderFromDatabase(userDetails.getUsername());
 
         if (order.getOrderItems().isEmpty()) {
             redirectAttributes.addFlashAttribute("message", "Koszyk jest pusty, dodaj produkty przed złożeniem zamówienia.");
             return "redirect:/cart";
         }
 
-        for (OrderItem item : order.getOrderItems()) {
-            Product product = item.getProduct();
-            int newStock = product.getStock() - item.getQuantity();
-            if (newStock < 0) {
-                redirectAttributes.addFlashAttribute("message", "Niewystarczający stan magazynowy dla produktu " + product.getName());
-                return "redirect:/cart";
-            }
-            product.setStock(newStock);
-            productRepository.save(product);
+        String contactName = user.getFirstName() + " " + user.getLastName();
+        CheckoutCommand command = guestCart == null
+                ? CheckoutCommand.forOrder(order.getId(), contactName, user.getPhone(), user.getAddress())
+                : CheckoutCommand.forGuest(guestCart.lines().stream()
+                        .map(line -> new CheckoutLine(line.productId(), line.name(), line.quantity(), line.price()))
+                        .toList(), contactName, user.getPhone(), user.getAddress());
+
+        CheckoutResult checkoutResult = checkoutPipeline.checkout(command);
+        if (!checkoutResult.confirmed()) {
+            redirectAttributes.addFlashAttribute("message", checkoutResult.message());
+            return "redirect:/cart";
         }
 
-        order.setStatus("CONFIRMED");
-        orderRepository.save(order);
         session.removeAttribute("itemCount");
-
-        if (userDetails == null) {
-            session.removeAttribute("cart");
+        if (guestCart != null) {
+            guestCarts.update(session, cart -> cart.subtract(guestCart));
         }
 
-        redirectAttributes.addFlashAttribute("message", "Zamówienie zostało złożone.");
+        redirectAttributes.addFlashAttribute("message", checkoutResult.message());
         return "redirect:/home";
     }
 
     @Transactional
     @PostMapping("/cancel")
     public String cancelOrder(@AuthenticationPrincipal UserDetails userDetails, HttpSession session, RedirectAttributes redirectAttributes) {
-        Order order = getOrder(userDetails, session);
-
-        if (order != null) {
-            if (userDetails != null) {
-                orderRepository.delete(order);
-            } else {
-                session.removeAttribute("cart");
-            }
-            redirectAttributes.addFlashAttribute("message", "Zamówienie zostało anulowane.");
+        if (userDetails != null) {
+            orderRepository.delete(getOrderFromDatabase(userDetails.getUsername()));
+        } else {
+            guestCarts.update(session, GuestCart::clear);
         }
+        redirectAttributes.addFlashAttribute("message", "Zamówienie zostało anulowane.");
 
         return "redirect:/cart";
     }
@@ -169,38 +219,22 @@ public class CartController {
     @Transactional
     @PostMapping("/decreaseQuantity/{productId}")
     public String decreaseQuantity(@PathVariable Long productId, @AuthenticationPrincipal UserDetails userDetails, HttpSession session) {
-        Order order = getOrder(userDetails, session);
-
-        order.getOrderItems().stream()
-                .filter(item -> item.getProduct().getId().equals(productId))
-                .findFirst()
-                .ifPresent(item -> {
+        changeCart(userDetails, session,
+                order -> findItem(order, productId).ifPresent(item -> {
                     if (item.getQuantity() > 1) {
                         item.setQuantity(item.getQuantity() - 1);
-                        item.setTotalItemPrice(item.getProduct().getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
                     }
-                    updateTotalPrice(order);
-                });
-
-        saveOrder(userDetails, session, order);
+                }),
+                cart -> cart.decrease(productId));
         return "redirect:/cart";
     }
 
     @Transactional
     @PostMapping("/increaseQuantity/{productId}")
     public String increaseQuantity(@PathVariable Long productId, @AuthenticationPrincipal UserDetails userDetails, HttpSession session, RedirectAttributes redirectAttributes) {
-        Order order = getOrder(userDetails, session);
-
-        order.getOrderItems().stream()
-                .filter(item -> item.getProduct().getId().equals(productId))
-                .findFirst()
-                .ifPresent(item -> {
-                    item.setQuantity(item.getQuantity() + 1);
-                    item.setTotalItemPrice(item.getProduct().getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
-                });
-
-        updateTotalPrice(order);
-        saveOrder(userDetails, session, order);
+        changeCart(userDetails, session,
+                order -> findItem(order, productId).ifPresent(item -> item.setQuantity(item.getQuantity() + 1)),
+                cart -> cart.increase(productId));
 
         redirectAttributes.addFlashAttribute("message", "Produkt został dodany.");
         return "redirect:/cart";
@@ -209,38 +243,56 @@ public class CartController {
     @Transactional
     @PostMapping("/removeItem/{productId}")
     public String removeItem(@PathVariable Long productId, @AuthenticationPrincipal UserDetails userDetails, HttpSession session) {
-        Order order = getOrder(userDetails, session);
-
-        order.getOrderItems().removeIf(item -> item.getProduct().getId().equals(productId));
-        updateTotalPrice(order);
-
-        saveOrder(userDetails, session, order);
+        changeCart(userDetails, session,
+                order -> order.getOrderItems().removeIf(item -> item.getProduct().getId().equals(productId)),
+                cart -> cart.remove(productId));
         return "redirect:/cart";
     }
 
-    private void saveOrder(UserDetails userDetails, HttpSession session, Order order) {
-        if (userDetails != null) {
-            orderRepository.save(order);
-        } else {
-            session.setAttribute("cart", order);
+    // Aktualne stany magazynowe pobieramy jednym zapytaniem zamiast osobnego findById dla każdej pozycji
+    private Map<Long, Product> findProducts(Order order) {
+        return productRepository.findAllById(order.getOrderItems().stream()
+                        .map(item -> item.getProduct().getId())
+                        .toList())
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+    }
+
+    // Zalogowany zmienia zamówienie PENDING w bazie, gość - niezmienną migawkę w sesji (GuestCartStore).
+    // Zwraca liczbę pozycji po zmianie.
+    private int changeCart(UserDetails userDetails, HttpSession session,
+                           Consumer<Order> orderChange, UnaryOperator<GuestCart> cartChange) {
+        if (userDetails == null) {
+            return guestCarts.update(session, cartChange).size();
         }
+        Order order = getOrderFromDatabase(userDetails.getUsername());
+        orderChange.accept(order);
+        updateTotalPrice(order);
+        orderRepository.save(order);
+        return order.getOrderItems().size();
     }
 
+    private Optional<OrderItem> findItem(Order order, Long productId) {
+        return order.getOrderItems().stream()
+                .filter(item -> item.getProduct().getId().equals(productId))
+                .findFirst();
+    }
+
+    // Ceny pozycji i suma z uwzględnieniem promocji (PricingEngine)
     private void updateTotalPrice(Order order) {
-        order.setTotalPrice(order.getOrderItems().stream()
-                .map(OrderItem::getTotalItemPrice)
-                .reduce(BigDecimal.ZERO, BigDecimal::add));
+        pricingEngine.apply(order);
     }
 
+    // Dla gościa nowy Order z bieżącej migawki - tylko do odczytu, zmiany idą przez changeCart
     private Order getOrder(UserDetails userDetails, HttpSession session) {
-        return userDetails != null ? getOrderFromDatabase(userDetails.getUsername()) : getOrderFromSession(session);
+        return userDetails != null ? getOrderFromDatabase(userDetails.getUsername()) : guestCarts.get(session).toOrder();
     }
 
     private Order getOrderFromDatabase(String username) {
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("Użytkownik nie znaleziony"));
 
-        return orderRepository.findByUserAndStatus(user, "PENDING").orElseGet(() -> {
+        return orderRepository.findWithItemsByUserAndStatus(user, "PENDING").orElseGet(() -> {
             Order newOrder = new Order();
             newOrder.setUser(user);
             newOrder.setStatus("PENDING");
@@ -250,39 +302,18 @@ public class CartController {
         });
     }
 
-    private Order getOrderFromSession(HttpSession session) {
-        Order order = (Order) session.getAttribute("cart");
-        if (order == null) {
-            order = createAndSaveOrderInSession(session);
-        }
-        return order;
-    }
-
-    private Order createAndSaveOrderInSession(HttpSession session) {
-        Order order = new Order();
-        order.setStatus("PENDING");
-        order.setTotalPrice(BigDecimal.ZERO);
-        order.setOrderItems(new HashSet<>());
-        session.setAttribute("cart", order);
-        return order;
-    }
-
     private void addOrUpdateOrderItem(Order order, Product product) {
-        Optional<OrderItem> existingItem = order.getOrderItems().stream()
-                .filter(item -> item.getProduct().getId().equals(product.getId()))
-                .findFirst();
+        Optional<OrderItem> existingItem = findItem(order, product.getId());
 
         if (existingItem.isPresent()) {
             OrderItem orderItem = existingItem.get();
             orderItem.setQuantity(orderItem.getQuantity() + 1);
-            orderItem.setTotalItemPrice(orderItem.getProduct().getPrice().multiply(BigDecimal.valueOf(orderItem.getQuantity())));
         } else {
             OrderItem orderItem = new OrderItem();
             orderItem.setOrder(order);
             orderItem.setProduct(product);
             orderItem.setQuantity(1);
             orderItem.setPrice(product.getPrice());
-            orderItem.setTotalItemPrice(product.getPrice());
             order.getOrderItems().add(orderItem);
         }
     }
@@ -1,43 +1,50 @@
 package com.example.shoppingapp.controller;
 
-import com.example.shoppingapp.model.Order;
-import com.example.shoppingapp.repository.ProductRepository;
+import com.example.shoppingapp.session.GuestCartStore;
+import com.example.shoppingapp.view.ProductGridCache;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.http.HttpSession;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
-
-import java.util.HashSet;
+import org.springframework.web.bind.annotation.RequestParam;
 
 @Controller
 public class HomeController {
 
-    private final ProductRepository productRepository;
+    private final ProductGridCache productGridCache;
+    private final GuestCartStore guestCarts;
 
-    public HomeController(ProductRepository productRepository) {
-        this.productRepository = productRepository;
+    public HomeController(ProductGridCache productGridCache, GuestCartStore guestCarts) {
+        this.productGridCache = productGridCache;
+        this.guestCarts = guestCarts;
     }
 
+    // Strona katalogu od produktu po "after" (bez parametru - pierwsza)
     @GetMapping("/home")
-    public String home(Model model, HttpSession session) {
-        model.addAttribute("products", productRepository.findAll());
-
-        // Pobierz koszyk z sesji lub utwórz nowy, jeśli jeszcze nie istnieje
-        Order order = (Order) session.getAttribute("cart");
-        if (order == null) {
-            order = new Order();
-            order.setOrderItems(new HashSet<>());
-            session.setAttribute("cart", order);
-        }
-
-        // Oblicz liczbę produktów w koszyku
-        int itemCount = (order.getOrderItems() != null) ? order.getOrderItems().size() : 0;
+    public String home(@RequestParam(required = false) Long after, Model model, HttpSession session,
+                       @AuthenticationPrincipal UserDetails userDetails,
+                       HttpServletRequest request, HttpServletResponse response) {
+        // Liczba produktów w koszyku gościa (migawka z sesji, pusta, jeśli koszyka jeszcze nie ma)
+        int itemCount = guestCarts.get(session).size();
 
-        model.addAttribute("order", order);
         model.addAttribute("itemCount", itemCount); // Przekazanie liczby produktów do widoku
+        model.addAttribute("catalogPage", productGridCache.page(userDetails != null, after, request, response));
 
         return "home";
     }
+
+    // Kolejna porcja kafelków dla przewijania bez końca (infiniteScroll.js)
+    @GetMapping("/home/products")
+    public String products(@RequestParam Long after, Model model, @AuthenticationPrincipal UserDetails userDetails,
+                           HttpServletRequest request, HttpServletResponse response) {
+        model.addAttribute("catalogPage", productGridCache.page(userDetails != null, after, request, response));
+        return "product-grid :: page";
+    }
+
     @GetMapping("/contact")
     public String showContactPage() {
         return "contact"; // Nazwa widoku (contact.html)
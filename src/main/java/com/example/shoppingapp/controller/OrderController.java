@@ -1,18 +1,25 @@
 package com.example.shoppingapp.controller;
 
+import com.example.shoppingapp.api.FieldSelection;
+import com.example.shoppingapp.dto.OrderDto;
+import com.example.shoppingapp.dto.OrderRequest;
 import com.example.shoppingapp.model.Order;
 import com.example.shoppingapp.model.User;
 import com.example.shoppingapp.repository.OrderRepository;
 import com.example.shoppingapp.repository.UserRepository;
+import com.example.shoppingapp.service.OrderService;
+import com.example.shoppingapp.service.PendingOrderRepricer;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
 import java.util.HashSet;
-import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -20,49 +27,57 @@ public class OrderController {
 
     private final OrderRepository orderRepository;
     private final UserRepository userRepository;
+    private final OrderService orderService;
+    private final PendingOrderRepricer pendingOrderRepricer;
 
-    public OrderController(OrderRepository orderRepository, UserRepository userRepository) {
+    public OrderController(OrderRepository orderRepository, UserRepository userRepository, OrderService orderService,
+                           PendingOrderRepricer pendingOrderRepricer) {
         this.orderRepository = orderRepository;
         this.userRepository = userRepository;
+        this.orderService = orderService;
+        this.pendingOrderRepricer = pendingOrderRepricer;
     }
 
     @GetMapping
-    public ResponseEntity<List<Order>> getAllOrders() {
-        List<Order> orders = orderRepository.findAll();
-        return ResponseEntity.ok(orders);
+    public ResponseEntity<MappingJacksonValue> getAllOrders(@RequestParam(required = false) Set<String> fields) {
+        return ResponseEntity.ok(FieldSelection.apply(orderService.findAllOrders(), fields));
+    }
+
+    // Postęp przeliczania otwartych koszyków po zmianach cen (PendingOrderRepricer)
+    @GetMapping("/repricing/stats")
+    public Map<String, Object> getRepricingStats() {
+        return pendingOrderRepricer.getStats();
     }
 
     @Transactional
     @PostMapping("/user/{userId}")
-    public ResponseEntity<Order> createOrder(@PathVariable Long userId, @Valid @RequestBody Order order) {
+    public ResponseEntity<OrderDto> createOrder(@PathVariable Long userId, @Valid @RequestBody OrderRequest request) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("Użytkownik nie znaleziony"));
 
+        Order order = new Order();
+        request.applyTo(order);
         order.setUser(user);
         order.setStatus("PENDING");
-        if (order.getOrderItems() == null) {
-            order.setOrderItems(new HashSet<>());  // Inicjalizacja pustego zbioru OrderItems, jeśli jest null
-        }
+        order.setOrderItems(new HashSet<>());  // Nowe zamówienie z API nie ma jeszcze pozycji
         if (order.getTotalPrice() == null) {
             order.setTotalPrice(BigDecimal.ZERO);  // Ustawienie domyślnej wartości dla ceny
         }
 
         Order savedOrder = orderRepository.save(order);
-        return ResponseEntity.status(HttpStatus.CREATED).body(savedOrder);
+        return ResponseEntity.status(HttpStatus.CREATED).body(OrderDto.from(savedOrder));
     }
 
     @Transactional
     @PutMapping("/{id}")
-    public ResponseEntity<Order> updateOrder(@PathVariable Long id, @Valid @RequestBody Order orderDetails) {
-        Order order = orderRepository.findById(id)
+    public ResponseEntity<OrderDto> updateOrder(@PathVariable Long id, @Valid @RequestBody OrderRequest request) {
+        Order order = orderRepository.findWithItemsById(id)
                 .orElseThrow(() -> new RuntimeException("Zamówienie nie znalezione"));
 
-        order.setOrderDate(orderDetails.getOrderDate());
-        order.setTotalPrice(orderDetails.getTotalPrice());
-        order.setStatus(orderDetails.getStatus());
+        request.applyTo(order);
 
         final Order updatedOrder = orderRepository.save(order);
-        return ResponseEntity.ok(updatedOrder);
+        return ResponseEntity.ok(OrderDto.from(updatedOrder));
     }
 
     @Transactional
@@ -1,56 +1,108 @@
 package com.example.shoppingapp.controller;
 
+import com.example.shoppingapp.api.FieldSelection;
+import com.example.shoppingapp.dto.ImportResult;
+import com.example.shoppingapp.dto.ProductDto;
+import com.example.shoppingapp.dto.ProductRequest;
 import com.example.shoppingapp.model.Product;
 import com.example.shoppingapp.repository.ProductRepository;
+import com.example.shoppingapp.service.ProductCatalog;
+import com.example.shoppingapp.service.ProductImportService;
+import com.example.shoppingapp.service.ProductSearchIndex;
+import com.example.shoppingapp.service.ProductService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
 
+    private static final int MAX_SEARCH_LIMIT = 100;
+
     private final ProductRepository productRepository;
+    private final ProductService productService;
+    private final ProductCatalog productCatalog;
+    private final ProductImportService productImportService;
+    private final ProductSearchIndex productSearchIndex;
 
     // konst
-    public ProductController(ProductRepository productRepository) {
+    public ProductController(ProductRepository productRepository, ProductService productService, ProductCatalog productCatalog,
+                             ProductImportService productImportService, ProductSearchIndex productSearchIndex) {
         this.productRepository = productRepository;
+        this.productService = productService;
+        this.productCatalog = productCatalog;
+        this.productImportService = productImportService;
+        this.productSearchIndex = productSearchIndex;
     }
 
-    // Pobieranie wszystkich produktów
+    // Pobieranie wszystkich produktów, opcjonalnie tylko wybranych pól (?fields=id,price,stock)
     @GetMapping
-    public List<Product> getAllProducts() {
-        return productRepository.findAll();
+    public MappingJacksonValue getAllProducts(@RequestParam(required = false) Set<String> fields) {
+        return FieldSelection.apply(productCatalog.getProducts(), fields);
+    }
+
+    // Wyszukiwanie po nazwie i opisie (ostatnie słowo jako prefiks), bez zapytań do bazy
+    @GetMapping("/search")
+    public List<ProductDto> search(@RequestParam String q, @RequestParam(defaultValue = "20") int limit) {
+        return productSearchIndex.search(q, Math.min(limit, MAX_SEARCH_LIMIT));
+    }
+
+    // Podpowiedzi przy wpisywaniu - dopasowania w nazwie produktu
+    @GetMapping("/suggest")
+    public List<ProductDto> suggest(@RequestParam String q, @RequestParam(defaultValue = "8") int limit) {
+        return productSearchIndex.suggest(q, Math.min(limit, MAX_SEARCH_LIMIT));
     }
 
     // Tworzenie nowego produktu
     @PostMapping
-    public Product createProduct(@Valid @RequestBody Product product) {
-        return productRepository.save(product);
+    public ProductDto createProduct(@Valid @RequestBody ProductRequest request) {
+        Product product = new Product();
+        request.applyTo(product);
+        return ProductDto.from(productService.save(product));
+    }
+
+    // Import katalogu z pliku CSV lub JSON lines (Content-Type: text/csv lub application/x-ndjson)
+    @PostMapping("/import")
+    public ImportResult importProducts(HttpServletRequest request,
+                                       @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+                                       @RequestParam(required = false) Integer chunkSize) throws IOException {
+        try (Reader reader = new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8)) {
+            return productImportService.importProducts(reader, ProductImportService.formatOf(contentType), chunkSize);
+        } catch (IllegalArgumentException e) {
+            // Plik, którego nie da się w ogóle czytać (np. nagłówek CSV bez wymaganych kolumn) - błąd klienta
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
     }
 
     // Aktualizacja istniejącego produktu
     @PutMapping("/{id}")
-    public ResponseEntity<Product> updateProduct(@PathVariable Long id, @Valid @RequestBody Product productDetails) {
+    public ResponseEntity<ProductDto> updateProduct(@PathVariable Long id, @Valid @RequestBody ProductRequest request) {
         Product product = productRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Product not found"));
 
         // Aktualizacja produktu
-        product.setName(productDetails.getName());
-        product.setDescription(productDetails.getDescription());
-        product.setPrice(productDetails.getPrice());
-        product.setStock(productDetails.getStock());
-        product.setImageUrl(productDetails.getImageUrl());
+        request.applyTo(product);
 
-        final Product updatedProduct = productRepository.save(product);
-        return ResponseEntity.ok(updatedProduct);
+        final Product updatedProduct = productService.save(product);
+        return ResponseEntity.ok(ProductDto.from(updatedProduct));
     }
 
     // Usuwanie produktu
     @DeleteMapping("/{id}")
     public void deleteProduct(@PathVariable Long id) {
-        productRepository.deleteById(id);
+        productService.deleteById(id);
     }
 }
@@ -0,0 +1,23 @@
+package com.example.shoppingapp.controller;
+
+import com.example.shoppingapp.service.ProductUpdateBroadcaster;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+public class ProductStreamController {
+
+    private final ProductUpdateBroadcaster broadcaster;
+
+    public ProductStreamController(ProductUpdateBroadcaster broadcaster) {
+        this.broadcaster = broadcaster;
+    }
+
+    // Strumień zmian stanu magazynowego i cen dla strony głównej (Server-Sent Events)
+    @GetMapping(value = "/products/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        return broadcaster.subscribe();
+    }
+}
@@ -19,6 +19,7 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.security.Principal;
 import java.util.Optional;
+import java.util.UUID;
 
 @Controller
 public class UserController {
@@ -187,6 +188,7 @@ public class UserController {
         } else {
             model.addAttribute("user", new User());
         }
+        model.addAttribute("idempotencyKey", UUID.randomUUID().toString());
         return "checkout";
     }
 }
@@ -0,0 +1,17 @@
+package com.example.shoppingapp.dto;
+
+import java.util.List;
+
+// Zalogowany użytkownik składa zapisane w bazie zamówienie (orderId), gość - pozycje z koszyka w sesji (lines)
+public record CheckoutCommand(Long orderId, List<CheckoutLine> lines, String contactName, String contactPhone,
+                              String contactAddress) {
+
+    public static CheckoutCommand forOrder(Long orderId, String contactName, String contactPhone, String contactAddress) {
+        return new CheckoutCommand(orderId, List.of(), contactName, contactPhone, contactAddress);
+    }
+
+    public static CheckoutCommand forGuest(List<CheckoutLine> lines, String contactName, String contactPhone,
+                                           String contactAddress) {
+        return new CheckoutCommand(null, lines, contactName, contactPhone, contactAddress);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.shoppingapp.dto;
+
+import java.math.BigDecimal;
+
+// Pozycja koszyka gościa przekazywana do złożenia zamówienia (cena z chwili dodania do koszyka)
+public record CheckoutLine(Long productId, String productName, int quantity, BigDecimal price) {
+}
@@ -0,0 +1,12 @@
+package com.example.shoppingapp.dto;
+
+public record CheckoutResult(boolean confirmed, Long orderId, String message) {
+
+    public static CheckoutResult confirmed(Long orderId) {
+        return new CheckoutResult(true, orderId, "Zamówienie zostało złożone.");
+    }
+
+    public static CheckoutResult rejected(String message) {
+        return new CheckoutResult(false, null, message);
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.shoppingapp.dto;
+
+import java.util.List;
+
+public record ImportResult(long rows, long rejected, int chunks, long elapsedMs, double rowsPerSecond, List<String> errors) {
+}
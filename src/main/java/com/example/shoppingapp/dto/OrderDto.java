@@ -0,0 +1,27 @@
+package com.example.shoppingapp.dto;
+
+import com.example.shoppingapp.api.FieldSelection;
+import com.example.shoppingapp.model.Order;
+import com.fasterxml.jackson.annotation.JsonFilter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// ?fields= wybiera pola zamówienia; pozycje (items) są zwracane w całości
+@JsonFilter(FieldSelection.FILTER)
+public record OrderDto(Long id, Long userId, String status, LocalDateTime orderDate, BigDecimal totalPrice,
+                       String contactName, String contactPhone, String contactAddress, List<OrderItemDto> items) {
+
+    public static OrderDto from(OrderSummaryDto summary, List<OrderItemDto> items) {
+        return new OrderDto(summary.id(), summary.userId(), summary.status(), summary.orderDate(), summary.totalPrice(),
+                summary.contactName(), summary.contactPhone(), summary.contactAddress(), items);
+    }
+
+    public static OrderDto from(Order order) {
+        return new OrderDto(order.getId(), order.getUser() != null ? order.getUser().getId() : null,
+                order.getStatus(), order.getOrderDate(), order.getTotalPrice(),
+                order.getContactName(), order.getContactPhone(), order.getContactAddress(),
+                order.getOrderItems().stream().map(OrderItemDto::from).toList());
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.shoppingapp.dto;
+
+import com.example.shoppingapp.model.OrderItem;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.math.BigDecimal;
+
+// orderId służy tylko do pogrupowania pozycji po stronie serwera, nie trafia do odpowiedzi
+public record OrderItemDto(@JsonIgnore Long orderId, Long productId, String productName, int quantity,
+                           BigDecimal price, BigDecimal totalItemPrice) {
+
+    public static OrderItemDto from(OrderItem item) {
+        return new OrderItemDto(item.getOrder().getId(), item.getProduct().getId(), item.getProduct().getName(),
+                item.getQuantity(), item.getPrice(), item.getTotalItemPrice());
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.shoppingapp.dto;
+
+import com.example.shoppingapp.model.Order;
+import jakarta.validation.constraints.Min;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record OrderRequest(@Min(value = 0, message = "Total price must be non-negative") BigDecimal totalPrice,
+                           LocalDateTime orderDate, String status,
+                           String contactName, String contactPhone, String contactAddress) {
+
+    // Pola pominięte w żądaniu (null) pozostają bez zmian
+    public void applyTo(Order order) {
+        if (totalPrice != null) {
+            order.setTotalPrice(totalPrice);
+        }
+        if (orderDate != null) {
+            order.setOrderDate(orderDate);
+        }
+        if (status != null) {
+            order.setStatus(status);
+        }
+        if (contactName != null) {
+            order.setContactName(contactName);
+        }
+        if (contactPhone != null) {
+            order.setContactPhone(contactPhone);
+        }
+        if (contactAddress != null) {
+            order.setContactAddress(contactAddress);
+        }
+    }
+}
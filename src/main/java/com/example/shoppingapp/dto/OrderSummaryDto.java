@@ -0,0 +1,9 @@
+package com.example.shoppingapp.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Projekcja nagłówka zamówienia pobierana z JPQL - bez encji User (i jej hasła) ani kolekcji pozycji
+public record OrderSummaryDto(Long id, Long userId, String status, LocalDateTime orderDate, BigDecimal totalPrice,
+                              String contactName, String contactPhone, String contactAddress) {
+}
@@ -0,0 +1,15 @@
+package com.example.shoppingapp.dto;
+
+import java.math.BigDecimal;
+
+// Zmiana stanu lub ceny wysyłana przez SSE; usunięty produkt ma stock = 0 i price = null
+public record ProductDelta(Long id, int stock, BigDecimal price) {
+
+    public static ProductDelta from(ProductDto product) {
+        return new ProductDelta(product.id(), product.stock(), product.price());
+    }
+
+    public static ProductDelta removed(Long id) {
+        return new ProductDelta(id, 0, null);
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.shoppingapp.dto;
+
+import com.example.shoppingapp.api.FieldSelection;
+import com.example.shoppingapp.model.Product;
+import com.fasterxml.jackson.annotation.JsonFilter;
+
+import java.math.BigDecimal;
+
+// Płaski kształt produktu w API - pobierany bezpośrednio z JPQL, bez ładowania encji
+@JsonFilter(FieldSelection.FILTER)
+public record ProductDto(Long id, String name, String description, BigDecimal price, int stock, String imageUrl) {
+
+    public static ProductDto from(Product product) {
+        return new ProductDto(product.getId(), product.getName(), product.getDescription(),
+                product.getPrice(), product.getStock(), product.getImageUrl());
+    }
+}
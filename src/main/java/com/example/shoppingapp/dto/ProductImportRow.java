@@ -0,0 +1,7 @@
+package com.example.shoppingapp.dto;
+
+import java.math.BigDecimal;
+
+// Wiersz pliku importu katalogu (CSV lub JSON lines); id == null oznacza nowy produkt
+public record ProductImportRow(Long id, String name, String description, BigDecimal price, Integer stock, String imageUrl) {
+}
@@ -0,0 +1,25 @@
+package com.example.shoppingapp.dto;
+
+import com.example.shoppingapp.model.Product;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+
+public record ProductRequest(
+        @NotBlank(message = "Product name is mandatory") String name,
+        @Size(max = 500) String description,
+        @NotNull @Min(value = 0, message = "Price must be non-negative") BigDecimal price,
+        @Min(value = 0, message = "Stock must be non-negative") int stock,
+        @Size(max = 1000) String imageUrl) {
+
+    public void applyTo(Product product) {
+        product.setName(name);
+        product.setDescription(description);
+        product.setPrice(price);
+        product.setStock(stock);
+        product.setImageUrl(imageUrl);
+    }
+}
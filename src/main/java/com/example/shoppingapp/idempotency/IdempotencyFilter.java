@@ -0,0 +1,193 @@
+package com.example.shoppingapp.idempotency;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Żądania POST z kluczem idempotencji (nagłówek Idempotency-Key lub pole formularza idempotencyKey)
+// wykonywane są najwyżej raz: ponowienie dostaje zapisaną odpowiedź, a równoległy duplikat czeka
+// na wynik pierwszej próby zamiast wykonywać zamówienie drugi raz.
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String PARAMETER = "idempotencyKey";
+    private static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private final IdempotencyStore store;
+    private final List<String> paths;
+    private final long waitTimeoutMs;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+    private final ConcurrentMap<String, CompletableFuture<StoredResponse>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyFilter(IdempotencyStore store,
+                             @Value("${app.idempotency.paths:/cart/checkout/submit,/api/orders/user/*,/api/products}") List<String> paths,
+                             @Value("${app.idempotency.wait-timeout-ms:10000}") long waitTimeoutMs) {
+        this.store = store;
+        this.paths = paths;
+        this.waitTimeoutMs = waitTimeoutMs;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod())) {
+            return true;
+        }
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return paths.stream().noneMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = resolveKey(request);
+        if (key == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String id = recordId(request, key);
+        Optional<StoredResponse> stored = store.findCompleted(id);
+        if (stored.isPresent()) {
+            replay(stored.get(), response);
+            return;
+        }
+
+        CompletableFuture<StoredResponse> attempt = new CompletableFuture<>();
+        CompletableFuture<StoredResponse> running = inFlight.putIfAbsent(id, attempt);
+        if (running != null) {
+            replayOrConflict(awaitLocal(running), response);
+            return;
+        }
+
+        try {
+            if (!store.claim(id)) {
+                StoredResponse other = awaitRemote(id);
+                attempt.complete(other);
+                replayOrConflict(other, response);
+                return;
+            }
+            execute(id, attempt, request, response, filterChain);
+        } finally {
+            attempt.complete(null);
+            inFlight.remove(id, attempt);
+        }
+    }
+
+    private void execute(String id, CompletableFuture<StoredResponse> attempt, HttpServletRequest request,
+                         HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, wrapper);
+        } catch (ServletException | IOException | RuntimeException e) {
+            store.release(id);
+            throw e;
+        }
+
+        StoredResponse result = new StoredResponse(wrapper.getStatus(), wrapper.getContentType(),
+                wrapper.getHeader(HttpHeaders.LOCATION), wrapper.getContentAsByteArray());
+        // Błędy serwera nie są zapamiętywane - klient może ponowić żądanie z tym samym kluczem
+        if (result.status() >= 500) {
+            store.release(id);
+        } else {
+            store.complete(id, result);
+            attempt.complete(result);
+        }
+        wrapper.copyBodyToResponse();
+    }
+
+    private StoredResponse awaitLocal(CompletableFuture<StoredResponse> running) {
+        try {
+            return running.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    // Klucz zajęty przez inny węzeł - sprawdzamy tabelę, aż pojawi się zapisana odpowiedź
+    private StoredResponse awaitRemote(String id) {
+        long deadline = System.currentTimeMillis() + waitTimeoutMs;
+        while (System.currentTimeMillis() < deadline) {
+            Optional<StoredResponse> stored = store.findCompleted(id);
+            if (stored.isPresent()) {
+                return stored.get();
+            }
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private void replayOrConflict(StoredResponse stored, HttpServletResponse response) throws IOException {
+        if (stored == null) {
+            response.sendError(HttpStatus.CONFLICT.value(), "Żądanie z tym kluczem jest nadal przetwarzane");
+            return;
+        }
+        replay(stored, response);
+    }
+
+    private void replay(StoredResponse stored, HttpServletResponse response) throws IOException {
+        response.setStatus(stored.status());
+        response.setHeader(REPLAYED_HEADER, "true");
+        if (stored.location() != null) {
+            response.setHeader(HttpHeaders.LOCATION, stored.location());
+        }
+        if (stored.contentType() != null) {
+            response.setContentType(stored.contentType());
+        }
+        if (stored.body() != null && stored.body().length > 0) {
+            response.setContentLength(stored.body().length);
+            response.getOutputStream().write(stored.body());
+        }
+    }
+
+    private String resolveKey(HttpServletRequest request) {
+        String key = request.getHeader(HEADER);
+        if (key == null || key.isBlank()) {
+            key = request.getParameter(PARAMETER);
+        }
+        return key == null || key.isBlank() ? null : key.trim();
+    }
+
+    // Klucz jest ważny tylko dla tego samego endpointu i tego samego użytkownika (lub sesji gościa)
+    private String recordId(HttpServletRequest request, String key) {
+        String owner = request.getRemoteUser() != null ? "user:" + request.getRemoteUser() : "session:" + request.getSession().getId();
+        String scope = request.getRequestURI() + "|" + owner + "|" + key;
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(scope.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
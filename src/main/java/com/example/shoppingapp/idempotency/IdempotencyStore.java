@@ -0,0 +1,93 @@
+package com.example.shoppingapp.idempotency;
+
+import com.example.shoppingapp.model.IdempotencyRecord;
+import com.example.shoppingapp.repository.IdempotencyRecordRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+// Zakończone odpowiedzi trzymamy w ograniczonym cache LRU w pamięci, a trwale w tabeli idempotency_keys.
+// Tabela służy też do zajęcia klucza, gdy to samo żądanie trafi równocześnie do dwóch węzłów.
+@Component
+public class IdempotencyStore {
+
+    private final IdempotencyRecordRepository repository;
+    private final Duration ttl;
+    private final Duration abandonedAfter;
+    private final Map<String, StoredResponse> completed;
+
+    public IdempotencyStore(IdempotencyRecordRepository repository,
+                            @Value("${app.idempotency.cache-size:10000}") int cacheSize,
+                            @Value("${app.idempotency.ttl:24h}") Duration ttl,
+                            @Value("${app.idempotency.abandoned-after:60s}") Duration abandonedAfter) {
+        this.repository = repository;
+        this.ttl = ttl;
+        this.abandonedAfter = abandonedAfter;
+        this.completed = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, StoredResponse> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    public Optional<StoredResponse> findCompleted(String id) {
+        StoredResponse cached = completed.get(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<StoredResponse> stored = repository.findById(id)
+                .filter(record -> record.getStatusCode() != IdempotencyRecord.IN_PROGRESS)
+                .map(record -> new StoredResponse(record.getStatusCode(), record.getContentType(),
+                        record.getLocation(), record.getBody()));
+        stored.ifPresent(response -> completed.put(id, response));
+        return stored;
+    }
+
+    // true, jeśli ten węzeł zajął klucz i ma wykonać żądanie
+    public boolean claim(String id) {
+        try {
+            repository.insertInProgress(id, LocalDateTime.now());
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            // Węzeł, który zajął klucz, mógł paść w trakcie - po czasie przejmujemy porzucony wpis
+            if (repository.deleteAbandoned(id, LocalDateTime.now().minus(abandonedAfter)) > 0) {
+                return claim(id);
+            }
+            return false;
+        }
+    }
+
+    @Transactional
+    public void complete(String id, StoredResponse response) {
+        IdempotencyRecord record = repository.findById(id).orElseGet(IdempotencyRecord::new);
+        record.setId(id);
+        record.setStatusCode(response.status());
+        record.setContentType(response.contentType());
+        record.setLocation(response.location());
+        record.setBody(response.body());
+        if (record.getCreatedAt() == null) {
+            record.setCreatedAt(LocalDateTime.now());
+        }
+        repository.save(record);
+        completed.put(id, response);
+    }
+
+    public void release(String id) {
+        repository.deleteInProgress(id);
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.cleanup-interval-ms:3600000}")
+    public void deleteExpired() {
+        repository.deleteOlderThan(LocalDateTime.now().minus(ttl));
+    }
+}
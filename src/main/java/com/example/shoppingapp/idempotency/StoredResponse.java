@@ -0,0 +1,5 @@
+package com.example.shoppingapp.idempotency;
+
+// Odpowiedź odtwarzana przy ponowieniu żądania z tym samym kluczem
+public record StoredResponse(int status, String contentType, String location, byte[] body) {
+}
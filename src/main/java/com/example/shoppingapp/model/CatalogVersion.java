@@ -0,0 +1,41 @@
+package com.example.shoppingapp.model;
+
+import jakarta.persistence.*;
+
+// Jeden wiersz z globalnym numerem wersji katalogu, podbijanym w tej samej transakcji co zmiana produktu
+@Entity
+@Table(name = "catalog_version")
+public class CatalogVersion {
+
+    public static final long SINGLETON_ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(nullable = false)
+    private long version;
+
+    public CatalogVersion() {
+    }
+
+    public CatalogVersion(Long id, long version) {
+        this.id = id;
+        this.version = version;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+}
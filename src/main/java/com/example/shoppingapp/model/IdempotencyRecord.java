@@ -0,0 +1,80 @@
+package com.example.shoppingapp.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// Zapamiętana odpowiedź na żądanie z nagłówkiem Idempotency-Key. statusCode = 0 oznacza żądanie w trakcie.
+@Entity
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_keys_created_at", columnList = "createdAt"))
+public class IdempotencyRecord {
+
+    public static final int IN_PROGRESS = 0;
+
+    @Id
+    @Column(length = 64)
+    private String id;
+
+    @Column(nullable = false)
+    private int statusCode;
+
+    private String contentType;
+
+    @Column(length = 1000)
+    private String location;
+
+    @Lob
+    @Column(length = 16777215)
+    private byte[] body;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public void setStatusCode(int statusCode) {
+        this.statusCode = statusCode;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getLocation() {
+        return location;
+    }
+
+    public void setLocation(String location) {
+        this.location = location;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public void setBody(byte[] body) {
+        this.body = body;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -7,11 +7,26 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "orders")
+@Table(name = "orders", indexes = @Index(name = "idx_orders_user_status", columnList = "user_id, status"))
+@NamedEntityGraph(
+        name = Order.WITH_ITEMS_AND_PRODUCTS,
+        attributeNodes = {
+                @NamedAttributeNode("user"),
+                @NamedAttributeNode(value = "orderItems", subgraph = "items")
+        },
+        subgraphs = @NamedSubgraph(name = "items", attributeNodes = @NamedAttributeNode("product"))
+)
 public class Order {
 
+    // Graf ładujący zamówienie razem z pozycjami i produktami w jednym zapytaniu (koszyk, checkout, API)
+    public static final String WITH_ITEMS_AND_PRODUCTS = "Order.withItemsAndProducts";
+
+    // Identyfikatory przydzielane pulami z tabeli id_sequences - INSERT nie musi wracać po klucz,
+    // więc Hibernate może wysłać zamówienia i ich pozycje w batchach JDBC
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "orders_id")
+    @TableGenerator(name = "orders_id", table = "id_sequences", pkColumnName = "sequence_name",
+            valueColumnName = "next_val", pkColumnValue = "orders", allocationSize = 50)
     private Long id;
 
     private BigDecimal totalPrice = BigDecimal.ZERO;
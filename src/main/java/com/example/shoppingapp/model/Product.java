@@ -3,10 +3,13 @@ package com.example.shoppingapp.model;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = @Index(name = "idx_products_catalog_version", columnList = "catalog_version"))
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Product {
 
     @Id
@@ -31,6 +34,22 @@ public class Product {
     @Column(length = 1000)
     private String imageUrl;
 
+    // Wersja katalogu, w której produkt był ostatnio zmieniony - pozwala węzłom doczytać tylko zmiany
+    @Column(name = "catalog_version", nullable = false)
+    private long catalogVersion;
+
+    // Cena w chwili wczytania z bazy - ProductService rozpoznaje po niej zmianę ceny
+    @Transient
+    private BigDecimal loadedPrice;
+
+    @PostLoad
+    void rememberLoadedPrice() {
+        this.loadedPrice = price;
+    }
+
+    public boolean isPriceChanged() {
+        return loadedPrice != null && (price == null || price.compareTo(loadedPrice) != 0);
+    }
 
     // Gettery i settery
     public Long getId() {
@@ -80,5 +99,13 @@ public class Product {
     public void setImageUrl(String imageUrl) {
         this.imageUrl = imageUrl;
     }
+
+    public long getCatalogVersion() {
+        return catalogVersion;
+    }
+
+    public void setCatalogVersion(long catalogVersion) {
+        this.catalogVersion = catalogVersion;
+    }
 }
 
@@ -0,0 +1,44 @@
+package com.example.shoppingapp.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+// Ślad usunięcia produktu z wersją katalogu, w której nastąpiło - węzły doczytują usunięcia tak jak zmiany,
+// po catalog_version, bez porównywania listy wszystkich id
+@Entity
+@Table(name = "product_tombstones",
+        indexes = @Index(name = "idx_product_tombstones_version", columnList = "catalog_version"))
+public class ProductTombstone {
+
+    @Id
+    @Column(name = "product_id")
+    private Long productId;
+
+    @Column(name = "catalog_version", nullable = false)
+    private long catalogVersion;
+
+    @Column(name = "deleted_at", nullable = false)
+    private LocalDateTime deletedAt;
+
+    public ProductTombstone() {
+    }
+
+    public ProductTombstone(Long productId, long catalogVersion, LocalDateTime deletedAt) {
+        this.productId = productId;
+        this.catalogVersion = catalogVersion;
+        this.deletedAt = deletedAt;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public long getCatalogVersion() {
+        return catalogVersion;
+    }
+
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+}
@@ -5,6 +5,10 @@ import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
@@ -16,6 +20,8 @@ import java.io.Serial; // Importowanie Serial
 
 @Entity
 @Table(name = "users")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
 public class User implements UserDetails, Serializable {
 
     @Serial // To wskazuje, że to pole jest przeznaczone do serializacji
@@ -27,6 +33,7 @@ public class User implements UserDetails, Serializable {
 
     @NotBlank(message = "Username is mandatory", groups = ValidationGroups.Registration.class)
     @Size(min = 3, max = 20, message = "Username must be between 3 and 20 characters", groups = ValidationGroups.Registration.class)
+    @NaturalId
     @Column(nullable = false, unique = true)
     private String username;
 
@@ -0,0 +1,55 @@
+package com.example.shoppingapp.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Zmiana koszyka (POST /cart/...) - od wejścia do kontrolera do zakończenia żądania.
+// Domyślnie wyłączone, włącza je profil jfr/shoppingapp.jfc.
+@Name("com.example.shoppingapp.CartMutation")
+@Label("Cart Mutation")
+@Category({"Shopping App", "Cart"})
+@Description("Obsługa zmiany koszyka przez CartController")
+@Enabled(false)
+@StackTrace(false)
+public class CartMutationEvent extends Event {
+
+    @Label("Operation")
+    private String operation;
+
+    @Label("Product Id")
+    private long productId;
+
+    @Label("Guest")
+    private boolean guest;
+
+    @Label("Status")
+    private int status;
+
+    @Label("Failed")
+    private boolean failed;
+
+    void setOperation(String operation) {
+        this.operation = operation;
+    }
+
+    void setProductId(long productId) {
+        this.productId = productId;
+    }
+
+    void setGuest(boolean guest) {
+        this.guest = guest;
+    }
+
+    void setStatus(int status) {
+        this.status = status;
+    }
+
+    void setFailed(boolean failed) {
+        this.failed = failed;
+    }
+}
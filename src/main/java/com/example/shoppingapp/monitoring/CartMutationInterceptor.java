@@ -0,0 +1,61 @@
+package com.example.shoppingapp.monitoring;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+// Zapisuje każdą zmianę koszyka (POST /cart/...) jako CartMutationEvent. Gdy zdarzenie nie jest włączone
+// w żadnym nagraniu, kończy się na jednym sprawdzeniu flagi.
+public class CartMutationInterceptor implements HandlerInterceptor {
+
+    private static final String EVENT_ATTRIBUTE = CartMutationInterceptor.class.getName() + ".event";
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"POST".equals(request.getMethod()) || !(handler instanceof HandlerMethod)) {
+            return true;
+        }
+        CartMutationEvent event = new CartMutationEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            request.setAttribute(EVENT_ATTRIBUTE, event);
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (!(request.getAttribute(EVENT_ATTRIBUTE) instanceof CartMutationEvent event)) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.setOperation(((HandlerMethod) handler).getMethod().getName());
+            event.setProductId(productId(request));
+            Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+            event.setGuest(authentication == null || !authentication.isAuthenticated()
+                    || "anonymousUser".equals(authentication.getPrincipal()));
+            event.setStatus(response.getStatus());
+            event.setFailed(ex != null);
+            event.commit();
+        }
+    }
+
+    private static long productId(HttpServletRequest request) {
+        if (request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE) instanceof Map<?, ?> variables
+                && variables.get("productId") instanceof String productId) {
+            try {
+                return Long.parseLong(productId);
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+        return 0;
+    }
+}
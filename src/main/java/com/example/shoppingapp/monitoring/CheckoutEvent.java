@@ -0,0 +1,67 @@
+package com.example.shoppingapp.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// Jedna próba złożenia zamówienia w CheckoutService. Czas trwania obejmuje całą paczkę (grupowy commit),
+// w której zamówienie było składane; writeTime to flush i commit tej paczki.
+@Name("com.example.shoppingapp.Checkout")
+@Label("Checkout")
+@Category({"Shopping App", "Checkout"})
+@Description("Złożenie zamówienia: rozmiar koszyka, wynik, czas sprawdzania stanów i zapisu")
+@Enabled(false)
+@StackTrace(false)
+public class CheckoutEvent extends Event {
+
+    public static final String CONFIRMED = "CONFIRMED";
+    public static final String REJECTED = "REJECTED";
+    // Paczka wycofana w całości - zamówienia są potem ponawiane pojedynczo (osobne zdarzenia)
+    public static final String ROLLED_BACK = "ROLLED_BACK";
+    public static final String FAILED = "FAILED";
+
+    @Label("Cart Lines")
+    private int lines;
+
+    @Label("Guest")
+    private boolean guest;
+
+    @Label("Batch Size")
+    private int batchSize;
+
+    @Label("Outcome")
+    private String outcome;
+
+    @Label("Stock Check Time")
+    @Timespan
+    private long stockCheckTime;
+
+    @Label("Write Time")
+    @Timespan
+    private long writeTime;
+
+    public CheckoutEvent(int lines, boolean guest, int batchSize) {
+        this.lines = lines;
+        this.guest = guest;
+        this.batchSize = batchSize;
+    }
+
+    public void setLines(int lines) {
+        this.lines = lines;
+    }
+
+    public void setStockCheckTime(long nanos) {
+        this.stockCheckTime = nanos;
+    }
+
+    public void finish(String outcome, long writeNanos) {
+        this.outcome = outcome;
+        this.writeTime = writeNanos;
+        commit();
+    }
+}
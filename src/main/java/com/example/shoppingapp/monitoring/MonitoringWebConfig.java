@@ -0,0 +1,15 @@
+package com.example.shoppingapp.monitoring;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+public class MonitoringWebConfig implements WebMvcConfigurer {
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new SqlOriginInterceptor());
+        registry.addInterceptor(new CartMutationInterceptor()).addPathPatterns("/cart/**");
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.shoppingapp.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Hashowanie (rejestracja) i weryfikacja hasła (logowanie) przez Argon2
+@Name("com.example.shoppingapp.PasswordHash")
+@Label("Password Hash")
+@Category({"Shopping App", "Security"})
+@Description("Wywołanie PasswordEncoder: encode lub matches")
+@Enabled(false)
+@StackTrace(false)
+public class PasswordHashEvent extends Event {
+
+    public static final String ENCODE = "encode";
+    public static final String MATCHES = "matches";
+
+    @Label("Operation")
+    private String operation;
+
+    @Label("Matched")
+    private boolean matched;
+
+    PasswordHashEvent(String operation) {
+        this.operation = operation;
+    }
+
+    void setMatched(boolean matched) {
+        this.matched = matched;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.shoppingapp.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Map;
+
+// Zlicza zapytania SQL na każde żądanie HTTP i ostrzega o przekroczeniu budżetu oraz wzorcu N+1
+@Component
+@ConditionalOnProperty(name = "app.query-budget.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryBudgetFilter.class);
+
+    private final int maxStatements;
+    private final int repeatThreshold;
+
+    public QueryBudgetFilter(@Value("${app.query-budget.max-statements:20}") int maxStatements,
+                             @Value("${app.query-budget.repeat-threshold:3}") int repeatThreshold) {
+        this.maxStatements = maxStatements;
+        this.repeatThreshold = repeatThreshold;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        QueryCountHolder.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            QueryStats stats = QueryCountHolder.stop();
+            report(request, stats);
+        }
+    }
+
+    private void report(HttpServletRequest request, QueryStats stats) {
+        String endpoint = request.getMethod() + " " + request.getRequestURI();
+
+        if (stats.getTotal() > maxStatements) {
+            log.warn("Przekroczono budżet zapytań dla {}: {} zapytań (limit {})", endpoint, stats.getTotal(), maxStatements);
+        }
+
+        Map<String, Integer> repeated = stats.getRepeatedStatements(repeatThreshold);
+        repeated.forEach((sql, count) ->
+                log.warn("Możliwe N+1 w {}: zapytanie wykonane {} razy: {}", endpoint, count, sql));
+
+        if (log.isDebugEnabled()) {
+            log.debug("{}: {} zapytań (select={}, insert={}, update={}, delete={})", endpoint, stats.getTotal(),
+                    stats.getSelects(), stats.getInserts(), stats.getUpdates(), stats.getDeletes());
+        }
+    }
+}
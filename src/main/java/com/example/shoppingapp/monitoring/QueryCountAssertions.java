@@ -0,0 +1,71 @@
+package com.example.shoppingapp.monitoring;
+
+import java.util.Map;
+
+// API do testów: pozwala zablokować liczbę zapytań wykonywanych przez dany endpoint
+//
+//   QueryCountAssertions.reset();
+//   mockMvc.perform(get("/cart"));
+//   QueryCountAssertions.assertSelectCount(3);
+//
+// Zakres liczenia obejmuje bieżący wątek, więc MockMvc (wykonujący żądanie w wątku testu) jest liczony w całości.
+// Liczone są tylko zapytania Hibernate (StatementInspector) - nie obejmuje to zapytań przez JdbcTemplate
+// ani zapisów wykonywanych w wątku grupowego składania zamówień (CheckoutPipeline).
+public final class QueryCountAssertions {
+
+    private QueryCountAssertions() {
+    }
+
+    public static void reset() {
+        QueryCountHolder.clear();
+        QueryCountHolder.start();
+    }
+
+    public static QueryStats stats() {
+        QueryStats stats = QueryCountHolder.current();
+        if (stats == null) {
+            throw new IllegalStateException("Brak aktywnego licznika zapytań - wywołaj najpierw reset()");
+        }
+        return stats;
+    }
+
+    public static void assertStatementCount(int expected) {
+        assertCount("zapytań", expected, stats().getTotal());
+    }
+
+    public static void assertSelectCount(int expected) {
+        assertCount("zapytań SELECT", expected, stats().getSelects());
+    }
+
+    public static void assertInsertCount(int expected) {
+        assertCount("zapytań INSERT", expected, stats().getInserts());
+    }
+
+    public static void assertUpdateCount(int expected) {
+        assertCount("zapytań UPDATE", expected, stats().getUpdates());
+    }
+
+    public static void assertDeleteCount(int expected) {
+        assertCount("zapytań DELETE", expected, stats().getDeletes());
+    }
+
+    public static void assertMaxStatementCount(int max) {
+        int actual = stats().getTotal();
+        if (actual > max) {
+            throw new AssertionError("Oczekiwano najwyżej " + max + " zapytań, wykonano " + actual);
+        }
+    }
+
+    public static void assertNoRepeatedStatements(int threshold) {
+        Map<String, Integer> repeated = stats().getRepeatedStatements(threshold);
+        if (!repeated.isEmpty()) {
+            throw new AssertionError("Wykryto powtarzające się zapytania (N+1): " + repeated);
+        }
+    }
+
+    private static void assertCount(String what, int expected, int actual) {
+        if (expected != actual) {
+            throw new AssertionError("Oczekiwano " + expected + " " + what + ", wykonano " + actual);
+        }
+    }
+}
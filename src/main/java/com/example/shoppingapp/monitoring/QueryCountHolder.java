@@ -0,0 +1,50 @@
+package com.example.shoppingapp.monitoring;
+
+// Przechowuje statystyki zapytań bieżącego wątku (jedno żądanie HTTP = jeden wątek). Zakresy można zagnieżdżać:
+// zapytanie trafia do bieżącego zakresu i wszystkich zewnętrznych, a stop() przywraca zakres zewnętrzny.
+// Dzięki temu QueryBudgetFilter w łańcuchu MockMvc nie kasuje licznika otwartego przez test.
+public final class QueryCountHolder {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private QueryCountHolder() {
+    }
+
+    public static QueryStats start() {
+        QueryStats stats = new QueryStats();
+        CURRENT.set(new Scope(stats, CURRENT.get()));
+        return stats;
+    }
+
+    public static QueryStats current() {
+        Scope scope = CURRENT.get();
+        return scope != null ? scope.stats() : null;
+    }
+
+    public static QueryStats stop() {
+        Scope scope = CURRENT.get();
+        if (scope == null) {
+            return null;
+        }
+        if (scope.outer() != null) {
+            CURRENT.set(scope.outer());
+        } else {
+            CURRENT.remove();
+        }
+        return scope.stats();
+    }
+
+    // Zamyka wszystkie zakresy wątku (np. pozostałe po poprzednim teście)
+    static void clear() {
+        CURRENT.remove();
+    }
+
+    static void record(String sql) {
+        for (Scope scope = CURRENT.get(); scope != null; scope = scope.outer()) {
+            scope.stats().record(sql);
+        }
+    }
+
+    private record Scope(QueryStats stats, Scope outer) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.shoppingapp.monitoring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Hibernate przekazuje tu każde zapytanie przed jego przygotowaniem - zliczamy je bez modyfikacji
+public class QueryCountInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        QueryCountHolder.record(sql);
+        return sql;
+    }
+}
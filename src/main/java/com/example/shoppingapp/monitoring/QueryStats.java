@@ -0,0 +1,62 @@
+package com.example.shoppingapp.monitoring;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Statystyki zapytań SQL wykonanych w obrębie jednego żądania HTTP (lub jednego zakresu w teście)
+public class QueryStats {
+
+    private final Map<String, Integer> statements = new LinkedHashMap<>();
+    private int total;
+    private int selects;
+    private int inserts;
+    private int updates;
+    private int deletes;
+
+    void record(String sql) {
+        total++;
+        statements.merge(sql, 1, Integer::sum);
+
+        String prefix = sql.stripLeading().toLowerCase();
+        if (prefix.startsWith("select")) {
+            selects++;
+        } else if (prefix.startsWith("insert")) {
+            inserts++;
+        } else if (prefix.startsWith("update")) {
+            updates++;
+        } else if (prefix.startsWith("delete")) {
+            deletes++;
+        }
+    }
+
+    // Zapytania o identycznej treści (różniące się tylko parametrami) powtórzone co najmniej `threshold` razy
+    public Map<String, Integer> getRepeatedStatements(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        statements.forEach((sql, count) -> {
+            if (count >= threshold) {
+                repeated.put(sql, count);
+            }
+        });
+        return repeated;
+    }
+
+    public int getTotal() {
+        return total;
+    }
+
+    public int getSelects() {
+        return selects;
+    }
+
+    public int getInserts() {
+        return inserts;
+    }
+
+    public int getUpdates() {
+        return updates;
+    }
+
+    public int getDeletes() {
+        return deletes;
+    }
+}
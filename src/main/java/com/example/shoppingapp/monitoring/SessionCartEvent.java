@@ -0,0 +1,43 @@
+package com.example.shoppingapp.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// Zapis lub odczyt koszyka gościa w sesji JDBC (CartSessionCodec)
+@Name("com.example.shoppingapp.SessionCart")
+@Label("Session Cart")
+@Category({"Shopping App", "Session"})
+@Description("Serializacja koszyka gościa w sesji: liczba pozycji i rozmiar zapisu")
+@Enabled(false)
+@StackTrace(false)
+public class SessionCartEvent extends Event {
+
+    public static final String WRITE = "write";
+    public static final String READ = "read";
+
+    @Label("Operation")
+    private String operation;
+
+    @Label("Items")
+    private int items;
+
+    @Label("Size")
+    @DataAmount
+    private long size;
+
+    public SessionCartEvent(String operation) {
+        this.operation = operation;
+    }
+
+    public void finish(int items, long size) {
+        this.items = items;
+        this.size = size;
+        commit();
+    }
+}
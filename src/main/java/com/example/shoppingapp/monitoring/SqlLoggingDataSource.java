@@ -0,0 +1,65 @@
+package com.example.shoppingapp.monitoring;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Zastępuje spring.jpa.show-sql: loguje każde zapytanie wolniejsze niż próg oraz losową próbkę szybkich,
+// z czasem wykonania, liczbą parametrów, liczbą wierszy i metodą kontrolera, z której pochodzą.
+// Zapytania przechodzą przez lekkie opakowania Timed* (bez proxy i refleksji) - poza logiem kosztują tylko
+// pomiar czasu; o próbce decydujemy przy przygotowaniu zapytania.
+// Logger "sql" jest podpięty pod asynchroniczny, ograniczony appender (logback-spring.xml),
+// więc zapis logu nie blokuje wątków obsługujących żądania.
+public class SqlLoggingDataSource extends DelegatingDataSource {
+
+    static final String HANDLER_MDC_KEY = "handler";
+
+    private static final Logger log = LoggerFactory.getLogger("sql");
+
+    private final long slowThresholdNanos;
+    private final double sampleRate;
+
+    public SqlLoggingDataSource(DataSource target, long slowThresholdMs, double sampleRate) {
+        super(target);
+        this.slowThresholdNanos = slowThresholdMs * 1_000_000L;
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return new TimedConnection(super.getConnection(), this);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return new TimedConnection(super.getConnection(username, password), this);
+    }
+
+    // O próbce decydujemy raz, przy przygotowaniu zapytania
+    boolean sampled() {
+        return sampleRate > 0 && log.isInfoEnabled() && ThreadLocalRandom.current().nextDouble() < sampleRate;
+    }
+
+    boolean shouldReport(long elapsedNanos, boolean sampled) {
+        return sampled || elapsedNanos >= slowThresholdNanos;
+    }
+
+    void report(String sql, long elapsedNanos, int params, long rows) {
+        if (!log.isInfoEnabled()) {
+            return;
+        }
+        log.info("type={} elapsedMs={} params={} rows={} handler={} sql=\"{}\"",
+                elapsedNanos >= slowThresholdNanos ? "slow" : "sample",
+                String.format("%.3f", elapsedNanos / 1_000_000.0),
+                params,
+                rows,
+                MDC.get(HANDLER_MDC_KEY),
+                sql != null ? sql.replaceAll("\\s+", " ").trim() : "");
+    }
+}
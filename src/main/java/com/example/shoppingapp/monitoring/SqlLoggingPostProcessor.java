@@ -0,0 +1,29 @@
+package com.example.shoppingapp.monitoring;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+
+// Opakowuje DataSource aplikacji w SqlLoggingDataSource, gdy app.sql-log.enabled=true
+@Component
+public class SqlLoggingPostProcessor implements BeanPostProcessor {
+
+    private final Environment environment;
+
+    public SqlLoggingPostProcessor(Environment environment) {
+        this.environment = environment;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof SqlLoggingDataSource)
+                && environment.getProperty("app.sql-log.enabled", Boolean.class, true)) {
+            return new SqlLoggingDataSource(dataSource,
+                    environment.getProperty("app.sql-log.slow-threshold-ms", Long.class, 200L),
+                    environment.getProperty("app.sql-log.sample-rate", Double.class, 0.01));
+        }
+        return bean;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.shoppingapp.monitoring;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+// Zapamiętuje metodę kontrolera obsługującą żądanie, żeby log SQL wskazywał źródło zapytania
+// (również dla leniwego ładowania podczas renderowania widoku)
+public class SqlOriginInterceptor implements HandlerInterceptor {
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod handlerMethod) {
+            MDC.put(SqlLoggingDataSource.HANDLER_MDC_KEY,
+                    handlerMethod.getBeanType().getSimpleName() + "." + handlerMethod.getMethod().getName());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        MDC.remove(SqlLoggingDataSource.HANDLER_MDC_KEY);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.shoppingapp.monitoring;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+// PasswordEncoder zapisujący czas każdego hashowania jako PasswordHashEvent
+public class TimedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+
+    public TimedPasswordEncoder(PasswordEncoder delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        PasswordHashEvent event = new PasswordHashEvent(PasswordHashEvent.ENCODE);
+        event.begin();
+        try {
+            return delegate.encode(rawPassword);
+        } finally {
+            event.commit();
+        }
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        PasswordHashEvent event = new PasswordHashEvent(PasswordHashEvent.MATCHES);
+        event.begin();
+        boolean matched = false;
+        try {
+            matched = delegate.matches(rawPassword, encodedPassword);
+            return matched;
+        } finally {
+            event.setMatched(matched);
+            event.commit();
+        }
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
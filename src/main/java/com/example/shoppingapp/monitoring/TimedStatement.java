@@ -0,0 +1,392 @@
+package com.example.shoppingapp.monitoring;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+
+// Statement sterownika z pomiarem czasu wykonania. Na szybkiej ścieżce są tylko dwa odczyty zegara
+// i porównanie z progiem - wpis logu (i liczenie wierszy wyniku) powstaje wyłącznie dla zapytań wolniejszych
+// niż próg albo wylosowanych do próbki przy przygotowaniu zapytania. Bez proxy i refleksji.
+class TimedStatement implements Statement {
+
+    private final Statement target;
+    private final SqlLoggingDataSource dataSource;
+    private final boolean sampled;
+    String sql;
+
+    TimedStatement(Statement target, String sql, SqlLoggingDataSource dataSource) {
+        this.target = target;
+        this.sql = sql;
+        this.dataSource = dataSource;
+        this.sampled = dataSource.sampled();
+    }
+
+    // Zwykły Statement nie ma parametrów
+    int parameterCount() {
+        return 0;
+    }
+
+    ResultSet finished(String sql, long start, ResultSet resultSet) {
+        long elapsed = System.nanoTime() - start;
+        if (resultSet == null || !dataSource.shouldReport(elapsed, sampled)) {
+            return resultSet;
+        }
+        // Liczbę wierszy znamy dopiero po odczytaniu wyniku - raport przy zamknięciu ResultSet
+        return new CountingResultSet(resultSet, sql, elapsed, parameterCount(), dataSource);
+    }
+
+    void finished(String sql, long start, long rows) {
+        long elapsed = System.nanoTime() - start;
+        if (dataSource.shouldReport(elapsed, sampled)) {
+            dataSource.report(sql, elapsed, parameterCount(), rows);
+        }
+    }
+
+    void finished(String sql, long start, int[] counts) {
+        long elapsed = System.nanoTime() - start;
+        if (dataSource.shouldReport(elapsed, sampled)) {
+            long total = 0;
+            for (int count : counts) {
+                total += Math.max(count, 0);
+            }
+            dataSource.report(sql, elapsed, parameterCount(), total);
+        }
+    }
+
+    void finished(String sql, long start, long[] counts) {
+        long elapsed = System.nanoTime() - start;
+        if (dataSource.shouldReport(elapsed, sampled)) {
+            long total = 0;
+            for (long count : counts) {
+                total += Math.max(count, 0);
+            }
+            dataSource.report(sql, elapsed, parameterCount(), total);
+        }
+    }
+
+    @Override
+    public ResultSet executeQuery(String sql) throws SQLException {
+        long start = System.nanoTime();
+        return finished(sql, start, target.executeQuery(sql));
+    }
+
+    @Override
+    public int executeUpdate(String sql) throws SQLException {
+        long start = System.nanoTime();
+        int count = target.executeUpdate(sql);
+        finished(sql, start, count);
+        return count;
+    }
+
+    @Override
+    public void close() throws SQLException {
+        target.close();
+    }
+
+    @Override
+    public int getMaxFieldSize() throws SQLException {
+        return target.getMaxFieldSize();
+    }
+
+    @Override
+    public void setMaxFieldSize(int max) throws SQLException {
+        target.setMaxFieldSize(max);
+    }
+
+    @Override
+    public int getMaxRows() throws SQLException {
+        return target.getMaxRows();
+    }
+
+    @Override
+    public void setMaxRows(int max) throws SQLException {
+        target.setMaxRows(max);
+    }
+
+    @Override
+    public void setEscapeProcessing(boolean enable) throws SQLException {
+        target.setEscapeProcessing(enable);
+    }
+
+    @Override
+    public int getQueryTimeout() throws SQLException {
+        return target.getQueryTimeout();
+    }
+
+    @Override
+    public void setQueryTimeout(int seconds) throws SQLException {
+        target.setQueryTimeout(seconds);
+    }
+
+    @Override
+    public void cancel() throws SQLException {
+        target.cancel();
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        return target.getWarnings();
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        target.clearWarnings();
+    }
+
+    @Override
+    public void setCursorName(String name) throws SQLException {
+        target.setCursorName(name);
+    }
+
+    @Override
+    public boolean execute(String sql) throws SQLException {
+        long start = System.nanoTime();
+        boolean result = target.execute(sql);
+        finished(sql, start, -1L);
+        return result;
+    }
+
+    @Override
+    public ResultSet getResultSet() throws SQLException {
+        return target.getResultSet();
+    }
+
+    @Override
+    public int getUpdateCount() throws SQLException {
+        return target.getUpdateCount();
+    }
+
+    @Override
+    public boolean getMoreResults() throws SQLException {
+        return target.getMoreResults();
+    }
+
+    @Override
+    public void setFetchDirection(int direction) throws SQLException {
+        target.setFetchDirection(direction);
+    }
+
+    @Override
+    public int getFetchDirection() throws SQLException {
+        return target.getFetchDirection();
+    }
+
+    @Override
+    public void setFetchSize(int rows) throws SQLException {
+        target.setFetchSize(rows);
+    }
+
+    @Override
+    public int getFetchSize() throws SQLException {
+        return target.getFetchSize();
+    }
+
+    @Override
+    public int getResultSetConcurrency() throws SQLException {
+        return target.getResultSetConcurrency();
+    }
+
+    @Override
+    public int getResultSetType() throws SQLException {
+        return target.getResultSetType();
+    }
+
+    @Override
+    public void addBatch(String sql) throws SQLException {
+        this.sql = sql;
+        target.addBatch(sql);
+    }
+
+    @Override
+    public void clearBatch() throws SQLException {
+        target.clearBatch();
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException {
+        long start = System.nanoTime();
+        int[] counts = target.executeBatch();
+        finished(sql, start, counts);
+        return counts;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return target.getConnection();
+    }
+
+    @Override
+    public boolean getMoreResults(int current) throws SQLException {
+        return target.getMoreResults(current);
+    }
+
+    @Override
+    public ResultSet getGeneratedKeys() throws SQLException {
+        return target.getGeneratedKeys();
+    }
+
+    @Override
+    public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        long start = System.nanoTime();
+        int count = target.executeUpdate(sql, autoGeneratedKeys);
+        finished(sql, start, count);
+        return count;
+    }
+
+    @Override
+    public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        long start = System.nanoTime();
+        int count = target.executeUpdate(sql, columnIndexes);
+        finished(sql, start, count);
+        return count;
+    }
+
+    @Override
+    public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+        long start = System.nanoTime();
+        int count = target.executeUpdate(sql, columnNames);
+        finished(sql, start, count);
+        return count;
+    }
+
+    @Override
+    public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+        long start = System.nanoTime();
+        boolean result = target.execute(sql, autoGeneratedKeys);
+        finished(sql, start, -1L);
+        return result;
+    }
+
+    @Override
+    public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+        long start = System.nanoTime();
+        boolean result = target.execute(sql, columnIndexes);
+        finished(sql, start, -1L);
+        return result;
+    }
+
+    @Override
+    public boolean execute(String sql, String[] columnNames) throws SQLException {
+        long start = System.nanoTime();
+        boolean result = target.execute(sql, columnNames);
+        finished(sql, start, -1L);
+        return result;
+    }
+
+    @Override
+    public int getResultSetHoldability() throws SQLException {
+        return target.getResultSetHoldability();
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return target.isClosed();
+    }
+
+    @Override
+    public void setPoolable(boolean poolable) throws SQLException {
+        target.setPoolable(poolable);
+    }
+
+    @Override
+    public boolean isPoolable() throws SQLException {
+        return target.isPoolable();
+    }
+
+    @Override
+    public void closeOnCompletion() throws SQLException {
+        target.closeOnCompletion();
+    }
+
+    @Override
+    public boolean isCloseOnCompletion() throws SQLException {
+        return target.isCloseOnCompletion();
+    }
+
+    @Override
+    public long getLargeUpdateCount() throws SQLException {
+        return target.getLargeUpdateCount();
+    }
+
+    @Override
+    public void setLargeMaxRows(long max) throws SQLException {
+        target.setLargeMaxRows(max);
+    }
+
+    @Override
+    public long getLargeMaxRows() throws SQLException {
+        return target.getLargeMaxRows();
+    }
+
+    @Override
+    public long[] executeLargeBatch() throws SQLException {
+        long start = System.nanoTime();
+        long[] counts = target.executeLargeBatch();
+        finished(sql, start, counts);
+        return counts;
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql) throws SQLException {
+        long start = System.nanoTime();
+        long count = target.executeLargeUpdate(sql);
+        finished(sql, start, count);
+        return count;
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        long start = System.nanoTime();
+        long count = target.executeLargeUpdate(sql, autoGeneratedKeys);
+        finished(sql, start, count);
+        return count;
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        long start = System.nanoTime();
+        long count = target.executeLargeUpdate(sql, columnIndexes);
+        finished(sql, start, count);
+        return count;
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, String[] columnNames) throws SQLException {
+        long start = System.nanoTime();
+        long count = target.executeLargeUpdate(sql, columnNames);
+        finished(sql, start, count);
+        return count;
+    }
+
+    @Override
+    public String enquoteLiteral(String val) throws SQLException {
+        return target.enquoteLiteral(val);
+    }
+
+    @Override
+    public String enquoteIdentifier(String identifier, boolean alwaysQuote) throws SQLException {
+        return target.enquoteIdentifier(identifier, alwaysQuote);
+    }
+
+    @Override
+    public boolean isSimpleIdentifier(String identifier) throws SQLException {
+        return target.isSimpleIdentifier(identifier);
+    }
+
+    @Override
+    public String enquoteNCharLiteral(String val) throws SQLException {
+        return target.enquoteNCharLiteral(val);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return target.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return target.isWrapperFor(iface);
+    }
+}
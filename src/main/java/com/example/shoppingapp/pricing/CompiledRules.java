@@ -0,0 +1,105 @@
+package com.example.shoppingapp.pricing;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+// Niezmienny zestaw reguł. Reguły pozycji leżą w jednej tablicy posortowanej po id produktu, a productIds/offsets
+// wskazują zakres reguł danego produktu (wyszukiwanie binarne) - pozycja koszyka sprawdza tylko swoje reguły.
+// Na pozycję działa najlepsza pasująca reguła (rabaty się nie sumują), potem najlepsza reguła koszyka.
+final class CompiledRules {
+
+    static final CompiledRules EMPTY = compile(List.of());
+
+    private final long[] productIds;
+    private final int[] offsets;
+    private final PromotionRule[] lineRules;
+    private final PromotionRule[] cartRules;
+
+    private CompiledRules(long[] productIds, int[] offsets, PromotionRule[] lineRules, PromotionRule[] cartRules) {
+        this.productIds = productIds;
+        this.offsets = offsets;
+        this.lineRules = lineRules;
+        this.cartRules = cartRules;
+    }
+
+    static CompiledRules compile(Collection<PromotionRule> rules) {
+        PromotionRule[] lineRules = rules.stream()
+                .filter(rule -> rule.kind() != PromotionRule.Kind.CART_THRESHOLD)
+                .sorted(Comparator.comparingLong(PromotionRule::productId))
+                .toArray(PromotionRule[]::new);
+        PromotionRule[] cartRules = rules.stream()
+                .filter(rule -> rule.kind() == PromotionRule.Kind.CART_THRESHOLD)
+                .toArray(PromotionRule[]::new);
+
+        long[] productIds = new long[lineRules.length];
+        int[] offsets = new int[lineRules.length + 1];
+        int products = 0;
+        for (int i = 0; i < lineRules.length; i++) {
+            if (i == 0 || lineRules[i].productId() != lineRules[i - 1].productId()) {
+                productIds[products] = lineRules[i].productId();
+                offsets[products] = i;
+                products++;
+            }
+        }
+        offsets[products] = lineRules.length;
+        return new CompiledRules(Arrays.copyOf(productIds, products), Arrays.copyOf(offsets, products + 1),
+                lineRules, cartRules);
+    }
+
+    int size() {
+        return lineRules.length + cartRules.length;
+    }
+
+    void evaluate(PricedCart cart, long now) {
+        long subtotal = 0;
+        for (int line = 0; line < cart.size; line++) {
+            long unitPrice = cart.unitPrices[line];
+            int quantity = cart.quantities[line];
+            long best = 0;
+            PromotionRule bestRule = null;
+
+            int slot = Arrays.binarySearch(productIds, cart.productIds[line]);
+            if (slot >= 0) {
+                for (int r = offsets[slot]; r < offsets[slot + 1]; r++) {
+                    PromotionRule rule = lineRules[r];
+                    if (quantity < rule.minQuantity() || !rule.activeAt(now)) {
+                        continue;
+                    }
+                    int units = quantity;
+                    if (rule.kind() == PromotionRule.Kind.BUNDLE) {
+                        units = Math.min(quantity, cart.quantityOf(rule.requiredProductId()));
+                        if (units == 0) {
+                            continue;
+                        }
+                    }
+                    long discount = rule.lineDiscount(unitPrice, units);
+                    if (discount > best) {
+                        best = discount;
+                        bestRule = rule;
+                    }
+                }
+            }
+
+            cart.lineDiscounts[line] = best;
+            cart.lineRules[line] = bestRule;
+            subtotal += unitPrice * quantity - best;
+        }
+
+        long bestCart = 0;
+        PromotionRule bestCartRule = null;
+        for (PromotionRule rule : cartRules) {
+            if (subtotal >= rule.minCartTotal() && rule.activeAt(now)) {
+                long discount = rule.cartDiscount(subtotal);
+                if (discount > bestCart) {
+                    bestCart = discount;
+                    bestCartRule = rule;
+                }
+            }
+        }
+        cart.subtotal = subtotal;
+        cart.cartDiscount = bestCart;
+        cart.cartRule = bestCartRule;
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.shoppingapp.pricing;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+// Wynik wyceny koszyka do wyświetlenia: wartość bez rabatów, łączny rabat, do zapłaty i nazwy użytych promocji
+public record PriceQuote(BigDecimal grossTotal, BigDecimal discount, BigDecimal total, List<String> promotions) {
+
+    public boolean hasDiscount() {
+        return discount.signum() > 0;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.shoppingapp.pricing;
+
+import java.util.Arrays;
+
+// Koszyk w postaci tablic: pozycje na wejściu i rabaty na wyjściu ewaluacji.
+// Jeden obiekt jest używany wielokrotnie przez ten sam wątek, więc wycena nie alokuje pamięci.
+final class PricedCart {
+
+    long[] productIds = new long[16];
+    long[] unitPrices = new long[16];
+    int[] quantities = new int[16];
+    long[] lineDiscounts = new long[16];
+    PromotionRule[] lineRules = new PromotionRule[16];
+    int size;
+
+    // Suma pozycji po rabatach na produkty, przed rabatem na koszyk
+    long subtotal;
+    long cartDiscount;
+    PromotionRule cartRule;
+
+    void clear() {
+        Arrays.fill(lineRules, 0, size, null);
+        cartRule = null;
+        size = 0;
+    }
+
+    void add(long productId, long unitPrice, int quantity) {
+        if (size == productIds.length) {
+            int capacity = size * 2;
+            productIds = Arrays.copyOf(productIds, capacity);
+            unitPrices = Arrays.copyOf(unitPrices, capacity);
+            quantities = Arrays.copyOf(quantities, capacity);
+            lineDiscounts = Arrays.copyOf(lineDiscounts, capacity);
+            lineRules = Arrays.copyOf(lineRules, capacity);
+        }
+        productIds[size] = productId;
+        unitPrices[size] = unitPrice;
+        quantities[size] = quantity;
+        size++;
+    }
+
+    // Koszyki mają kilkadziesiąt pozycji - przejście po tablicy jest tańsze niż budowa indeksu
+    int quantityOf(long productId) {
+        int quantity = 0;
+        for (int i = 0; i < size; i++) {
+            if (productIds[i] == productId) {
+                quantity += quantities[i];
+            }
+        }
+        return quantity;
+    }
+
+    long grossTotal(int line) {
+        return unitPrices[line] * quantities[line];
+    }
+
+    long lineTotal(int line) {
+        return grossTotal(line) - lineDiscounts[line];
+    }
+
+    long total() {
+        return subtotal - cartDiscount;
+    }
+}
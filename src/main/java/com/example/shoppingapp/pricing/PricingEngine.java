@@ -0,0 +1,148 @@
+package com.example.shoppingapp.pricing;
+
+import com.example.shoppingapp.model.Order;
+import com.example.shoppingapp.model.OrderItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+// Wycena koszyka z promocjami z tabeli promotions. Reguły są kompilowane do niezmiennego CompiledRules
+// i podmieniane w całości, gdy zmieni się tabela - wycena czyta tylko bieżącą referencję, bez blokad i zapytań.
+@Component
+public class PricingEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(PricingEngine.class);
+
+    private static final String FINGERPRINT = "select concat(count(*), '/', coalesce(max(updated_at), '')) from promotions";
+    private static final String LOAD = "select id, name, type, product_id, required_product_id, min_quantity, " +
+            "min_cart_total, percent_off, amount_off, valid_from, valid_to from promotions where active = 1";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ThreadLocal<PricedCart> carts = ThreadLocal.withInitial(PricedCart::new);
+
+    private volatile CompiledRules rules;
+    private volatile String fingerprint;
+
+    public PricingEngine(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    // Przelicza pozycje i sumę zamówienia według aktualnych promocji (zmienia encję, nie zapisuje jej)
+    public PriceQuote apply(Order order) {
+        List<OrderItem> items = new ArrayList<>(order.getOrderItems());
+        PricedCart cart = carts.get();
+        cart.clear();
+        for (OrderItem item : items) {
+            cart.add(item.getProduct().getId(), toCents(item.getPrice()), item.getQuantity());
+        }
+        currentRules().evaluate(cart, System.currentTimeMillis());
+
+        long grossTotal = 0;
+        Set<String> promotions = new LinkedHashSet<>();
+        for (int line = 0; line < cart.size; line++) {
+            items.get(line).setTotalItemPrice(toMoney(cart.lineTotal(line)));
+            grossTotal += cart.grossTotal(line);
+            if (cart.lineRules[line] != null) {
+                promotions.add(cart.lineRules[line].name());
+            }
+        }
+        if (cart.cartRule != null) {
+            promotions.add(cart.cartRule.name());
+        }
+        order.setTotalPrice(toMoney(cart.total()));
+        return new PriceQuote(toMoney(grossTotal), toMoney(grossTotal - cart.total()), toMoney(cart.total()),
+                List.copyOf(promotions));
+    }
+
+    @Scheduled(fixedDelayString = "${app.pricing.poll-interval-ms:5000}")
+    public synchronized void reload() {
+        String current = jdbcTemplate.queryForObject(FINGERPRINT, String.class);
+        if (rules != null && current != null && current.equals(fingerprint)) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        List<PromotionRule> loaded = new ArrayList<>();
+        jdbcTemplate.query(LOAD, rs -> {
+            PromotionRule rule = toRule(rs);
+            if (rule != null) {
+                loaded.add(rule);
+            }
+        });
+        rules = CompiledRules.compile(loaded);
+        fingerprint = current;
+        log.info("Promocje przeładowane: {} reguł w {} ms", loaded.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private CompiledRules currentRules() {
+        CompiledRules current = rules;
+        if (current == null) {
+            try {
+                reload();
+                current = rules;
+            } catch (RuntimeException e) {
+                // Bez promocji koszyk nadal ma poprawne ceny bazowe - kolejna próba przy następnym odświeżeniu
+                log.warn("Nie udało się wczytać promocji", e);
+            }
+        }
+        return current != null ? current : CompiledRules.EMPTY;
+    }
+
+    // Błędnie skonfigurowany wiersz jest pomijany, żeby nie blokował pozostałych promocji
+    private static PromotionRule toRule(ResultSet rs) throws SQLException {
+        long id = rs.getLong("id");
+        PromotionRule.Kind kind;
+        try {
+            kind = PromotionRule.Kind.valueOf(rs.getString("type"));
+        } catch (IllegalArgumentException e) {
+            log.warn("Promocja {} ma nieznany typ {}", id, rs.getString("type"));
+            return null;
+        }
+
+        long productId = rs.getLong("product_id");
+        long requiredProductId = rs.getLong("required_product_id");
+        BigDecimal percentOff = rs.getBigDecimal("percent_off");
+        BigDecimal amountOff = rs.getBigDecimal("amount_off");
+        boolean valid = (percentOff != null && percentOff.signum() > 0) || (amountOff != null && amountOff.signum() > 0);
+        if (kind != PromotionRule.Kind.CART_THRESHOLD && productId == 0) {
+            valid = false;
+        }
+        if (kind == PromotionRule.Kind.BUNDLE && (requiredProductId == 0 || requiredProductId == productId)) {
+            valid = false;
+        }
+        if (!valid) {
+            log.warn("Promocja {} ma niepełną konfigurację i zostaje pominięta", id);
+            return null;
+        }
+
+        Timestamp validFrom = rs.getTimestamp("valid_from");
+        Timestamp validTo = rs.getTimestamp("valid_to");
+        return new PromotionRule(id, rs.getString("name"), kind, productId, requiredProductId,
+                Math.max(1, rs.getInt("min_quantity")),
+                toCents(rs.getBigDecimal("min_cart_total")),
+                percentOff != null ? Math.min(10_000, percentOff.movePointRight(2).intValue()) : 0,
+                toCents(amountOff),
+                validFrom != null ? validFrom.getTime() : Long.MIN_VALUE,
+                validTo != null ? validTo.getTime() : Long.MAX_VALUE);
+    }
+
+    private static long toCents(BigDecimal amount) {
+        return amount != null ? amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact() : 0;
+    }
+
+    private static BigDecimal toMoney(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.shoppingapp.pricing;
+
+// Skompilowana reguła promocji. Kwoty w groszach, procent w punktach bazowych (10% = 1000),
+// okres ważności w milisekundach epoki - ewaluacja nie tworzy BigDecimal ani dat.
+record PromotionRule(long id, String name, Kind kind, long productId, long requiredProductId, int minQuantity,
+                     long minCartTotal, int percentOff, long amountOff, long validFrom, long validTo) {
+
+    enum Kind {
+        PRODUCT, BUNDLE, CART_THRESHOLD
+    }
+
+    boolean activeAt(long now) {
+        return now >= validFrom && now < validTo;
+    }
+
+    // Rabat na pozycję: kwota na sztukę albo procent od wartości, nigdy więcej niż sama wartość
+    long lineDiscount(long unitPrice, int units) {
+        long gross = unitPrice * units;
+        long discount = amountOff > 0 ? Math.min(amountOff, unitPrice) * units : percentOf(gross);
+        return Math.min(discount, gross);
+    }
+
+    long cartDiscount(long total) {
+        return Math.min(amountOff > 0 ? amountOff : percentOf(total), total);
+    }
+
+    private long percentOf(long amount) {
+        return (amount * percentOff + 5_000) / 10_000;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.shoppingapp.repository;
+
+import com.example.shoppingapp.model.CatalogVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface CatalogVersionRepository extends JpaRepository<CatalogVersion, Long> {
+
+    // Blokuje wiersz do końca transakcji, więc kolejne wersje są zatwierdzane po kolei
+    @Modifying
+    @Query("update CatalogVersion c set c.version = c.version + 1 where c.id = " + CatalogVersion.SINGLETON_ID)
+    int increment();
+
+    @Query("select c.version from CatalogVersion c where c.id = " + CatalogVersion.SINGLETON_ID)
+    Optional<Long> findCurrentVersion();
+}
@@ -0,0 +1,36 @@
+package com.example.shoppingapp.repository;
+
+import com.example.shoppingapp.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // Zwykły INSERT (a nie save/merge), żeby drugi węzeł dostał błąd klucza głównego zamiast nadpisać wiersz
+    @Transactional
+    @Modifying
+    @Query(value = "insert into idempotency_keys (id, status_code, created_at) values (:id, 0, :createdAt)", nativeQuery = true)
+    void insertInProgress(String id, LocalDateTime createdAt);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.id = :id and r.statusCode = " + IdempotencyRecord.IN_PROGRESS)
+    int deleteInProgress(String id);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.id = :id and r.statusCode = " + IdempotencyRecord.IN_PROGRESS +
+            " and r.createdAt < :cutoff")
+    int deleteAbandoned(String id, LocalDateTime cutoff);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyRecord r where r.createdAt < :cutoff")
+    int deleteOlderThan(LocalDateTime cutoff);
+}
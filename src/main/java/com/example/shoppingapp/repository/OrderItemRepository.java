@@ -1,9 +1,21 @@
 package com.example.shoppingapp.repository;
 
+import com.example.shoppingapp.dto.OrderItemDto;
 import com.example.shoppingapp.model.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+
+    @Query("select new com.example.shoppingapp.dto.OrderItemDto(i.order.id, p.id, p.name, i.quantity, i.price, i.totalItemPrice) " +
+            "from OrderItem i join i.product p where i.order.id in :orderIds")
+    List<OrderItemDto> findDtosByOrderIds(Collection<Long> orderIds);
+
+    @Query("select distinct i.product.id from OrderItem i where i.order.id in :orderIds")
+    List<Long> findProductIdsByOrderIds(Collection<Long> orderIds);
 }
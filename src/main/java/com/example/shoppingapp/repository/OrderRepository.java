@@ -1,13 +1,37 @@
 package com.example.shoppingapp.repository;
 
+import com.example.shoppingapp.dto.OrderSummaryDto;
 import com.example.shoppingapp.model.Order;
 import com.example.shoppingapp.model.User;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
-    Optional<Order> findByUserAndStatus(User user, String status); // Dodana metoda
+    // Zamówienie z pozycjami i produktami w jednym zapytaniu - koszyk nie generuje 1 + N zapytań
+    @EntityGraph(Order.WITH_ITEMS_AND_PRODUCTS)
+    Optional<Order> findWithItemsByUserAndStatus(User user, String status);
+
+    @EntityGraph(Order.WITH_ITEMS_AND_PRODUCTS)
+    @Query("select o from Order o where o.id = :id")
+    Optional<Order> findWithItemsById(Long id);
+
+    @EntityGraph(Order.WITH_ITEMS_AND_PRODUCTS)
+    @Query("select o from Order o where o.id in :ids")
+    List<Order> findAllWithItemsByIdIn(Collection<Long> ids);
+
+    // Blokuje wiersze zamówień, które nadal czekają na złożenie - drugie równoległe złożenie tego samego koszyka
+    // czeka na pierwsze i po nim już go nie widzi
+    @Query(value = "select id from orders where id in (:ids) and status = 'PENDING' for update", nativeQuery = true)
+    List<Long> lockPendingIds(Collection<Long> ids);
+
+    @Query("select new com.example.shoppingapp.dto.OrderSummaryDto(o.id, u.id, o.status, o.orderDate, o.totalPrice, " +
+            "o.contactName, o.contactPhone, o.contactAddress) from Order o left join o.user u order by o.id")
+    List<OrderSummaryDto> findAllSummaries();
 }
@@ -1,9 +1,29 @@
 package com.example.shoppingapp.repository;
 
+import com.example.shoppingapp.dto.ProductDto;
 import com.example.shoppingapp.model.Product;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
+
+    @Query("select new com.example.shoppingapp.dto.ProductDto(p.id, p.name, p.description, p.price, p.stock, p.imageUrl) " +
+            "from Product p order by p.id")
+    List<ProductDto> findAllDtos();
+
+    @Query("select new com.example.shoppingapp.dto.ProductDto(p.id, p.name, p.description, p.price, p.stock, p.imageUrl) " +
+            "from Product p where p.catalogVersion > :version")
+    List<ProductDto> findDtosChangedSince(long version);
+
+    // SELECT ... FOR UPDATE w stałej kolejności id, żeby równoległe składanie zamówień nie zakleszczało się
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Product p where p.id in :ids order by p.id")
+    List<Product> findAllForUpdate(Collection<Long> ids);
 }
@@ -0,0 +1,23 @@
+package com.example.shoppingapp.repository;
+
+import com.example.shoppingapp.model.ProductTombstone;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface ProductTombstoneRepository extends JpaRepository<ProductTombstone, Long> {
+
+    @Query("select t.productId from ProductTombstone t where t.catalogVersion > :version")
+    List<Long> findProductIdsDeletedSince(long version);
+
+    @Transactional
+    @Modifying
+    @Query("delete from ProductTombstone t where t.deletedAt < :before")
+    int deleteOlderThan(LocalDateTime before);
+}
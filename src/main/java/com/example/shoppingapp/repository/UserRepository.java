@@ -3,10 +3,7 @@ package com.example.shoppingapp.repository;
 import com.example.shoppingapp.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 
-import java.util.Optional;
-
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
     boolean existsByUsername(String username);
     boolean existsByEmail(String email);
-    Optional<User> findByUsername(String username);
 }
@@ -0,0 +1,9 @@
+package com.example.shoppingapp.repository;
+
+import com.example.shoppingapp.model.User;
+
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+    Optional<User> findByUsername(String username);
+}
@@ -0,0 +1,26 @@
+package com.example.shoppingapp.repository;
+
+import com.example.shoppingapp.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+// unwrap na współdzielonym EntityManagerze wymaga transakcji - logowanie i kontrolery bez @Transactional
+// (open-in-view jest wyłączone) dostają tu własną, tylko do odczytu
+@Transactional(readOnly = true)
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Wyszukiwanie po naturalnym identyfikatorze korzysta z cache NaturalId, więc nie trafia do bazy przy każdym żądaniu
+    @Override
+    public Optional<User> findByUsername(String username) {
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(User.class)
+                .loadOptional(username);
+    }
+}
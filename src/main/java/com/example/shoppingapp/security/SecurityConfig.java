@@ -1,5 +1,6 @@
 package com.example.shoppingapp.security;
 
+import com.example.shoppingapp.monitoring.TimedPasswordEncoder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -14,7 +15,7 @@ public class SecurityConfig {
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
                 .authorizeHttpRequests(requests -> requests
-                        .requestMatchers("/", "/home", "/register", "/login", "/cart", "/cart/**","/contact" , "/checkout", "/checkout/submit", "/css/**", "/js/**", "/images/**", "/error").permitAll()
+                        .requestMatchers("/", "/home", "/home/products", "/register", "/login", "/cart", "/cart/**","/contact" , "/checkout", "/checkout/submit", "/css/**", "/js/**", "/images/**", "/assets/**", "/products/stream", "/api/products/search", "/api/products/suggest", "/actuator/health/**", "/error").permitAll()
                         .anyRequest().authenticated()
                 )
                 .formLogin(form -> form
@@ -27,7 +28,8 @@ public class SecurityConfig {
                         .logoutUrl("/logout")
                         .logoutSuccessUrl("/home")
                         .invalidateHttpSession(true)
-                        .deleteCookies("JSESSIONID")
+                        // Ciasteczko Spring Session (sesje w JDBC), nie kontenera
+                        .deleteCookies("SESSION")
                         .permitAll()
                 )
                 .csrf(csrf -> csrf.ignoringRequestMatchers("/api/**"));
@@ -36,6 +38,6 @@ public class SecurityConfig {
 
     @Bean
     public PasswordEncoder passwordEncoder() {
-        return new Argon2PasswordEncoder(16, 32, 1, 4096, 3);
+        return new TimedPasswordEncoder(new Argon2PasswordEncoder(16, 32, 1, 4096, 3));
     }
 }
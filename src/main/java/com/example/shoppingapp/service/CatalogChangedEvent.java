@@ -0,0 +1,10 @@
+package com.example.shoppingapp.service;
+
+import com.example.shoppingapp.dto.ProductDto;
+
+import java.util.List;
+import java.util.Set;
+
+// Publikowane przez ProductCatalog po doczytaniu zmian (z tego lub innego węzła)
+public record CatalogChangedEvent(long version, List<ProductDto> changed, Set<Long> removed) {
+}
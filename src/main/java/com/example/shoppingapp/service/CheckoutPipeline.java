@@ -0,0 +1,152 @@
+package com.example.shoppingapp.service;
+
+import com.example.shoppingapp.dto.CheckoutCommand;
+import com.example.shoppingapp.dto.CheckoutResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Grupowe zatwierdzanie zamówień (app.checkout.group-commit.enabled=true): wątki żądań wrzucają polecenia
+// do kolejki, a jeden wątek zapisujący zbiera je w paczki i składa każdą paczkę w jednej transakcji -
+// jeden COMMIT (fsync w MySQL) na wiele zamówień. Wyłączone - zamówienie składane od razu w wątku żądania.
+@Component
+public class CheckoutPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(CheckoutPipeline.class);
+
+    private static final long IDLE_POLL_MS = 100;
+
+    private final CheckoutService checkoutService;
+    private final boolean enabled;
+    private final int maxBatchSize;
+    private final long windowNanos;
+    private final long timeoutMs;
+    private final BlockingQueue<PendingCheckout> queue;
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public CheckoutPipeline(CheckoutService checkoutService,
+                            @Value("${app.checkout.group-commit.enabled:false}") boolean enabled,
+                            @Value("${app.checkout.group-commit.max-batch-size:100}") int maxBatchSize,
+                            @Value("${app.checkout.group-commit.window-ms:2}") long windowMs,
+                            @Value("${app.checkout.group-commit.queue-capacity:2000}") int queueCapacity,
+                            @Value("${app.checkout.group-commit.timeout-ms:30000}") long timeoutMs) {
+        this.checkoutService = checkoutService;
+        this.enabled = enabled;
+        this.maxBatchSize = maxBatchSize;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(windowMs);
+        this.timeoutMs = timeoutMs;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.writer = new Thread(this::run, "checkout-writer");
+        this.writer.setDaemon(true);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (enabled) {
+            writer.start();
+        }
+    }
+
+    public CheckoutResult checkout(CheckoutCommand command) {
+        if (!enabled) {
+            return checkoutService.checkout(command);
+        }
+
+        PendingCheckout pending = new PendingCheckout(command, new CompletableFuture<>());
+        if (!running || !queue.offer(pending)) {
+            return CheckoutResult.rejected("Sklep jest teraz przeciążony, spróbuj złożyć zamówienie za chwilę.");
+        }
+        try {
+            return pending.result().get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Polecenie jest już w kolejce i może zostać zapisane później - nie twierdzimy, że się nie udało
+            return CheckoutResult.rejected("Zamówienie jest nadal przetwarzane, sprawdź jego status za chwilę.");
+        } catch (ExecutionException e) {
+            log.warn("Nie udało się złożyć zamówienia", e.getCause());
+            return CheckoutResult.rejected("Nie udało się złożyć zamówienia, spróbuj ponownie.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CheckoutResult.rejected("Zamówienie jest nadal przetwarzane, sprawdź jego status za chwilę.");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        if (enabled) {
+            // Wątek zapisujący kończy dopiero po opróżnieniu kolejki
+            writer.join(timeoutMs);
+        }
+    }
+
+    private void run() {
+        List<PendingCheckout> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingCheckout first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                collect(batch);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+
+        PendingCheckout abandoned;
+        while ((abandoned = queue.poll()) != null) {
+            abandoned.result().complete(CheckoutResult.rejected("Nie udało się złożyć zamówienia, spróbuj ponownie."));
+        }
+    }
+
+    // Bierze wszystko, co już czeka, a jeśli paczka nie jest pełna - czeka jeszcze chwilę na kolejne zamówienia
+    private void collect(List<PendingCheckout> batch) throws InterruptedException {
+        queue.drainTo(batch, maxBatchSize - batch.size());
+        long deadline = System.nanoTime() + windowNanos;
+        while (batch.size() < maxBatchSize) {
+            long remaining = deadline - System.nanoTime();
+            PendingCheckout next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+            queue.drainTo(batch, maxBatchSize - batch.size());
+        }
+    }
+
+    private void process(List<PendingCheckout> batch) {
+        long start = System.nanoTime();
+        List<CheckoutResult> results;
+        try {
+            results = checkoutService.checkoutAll(batch.stream().map(PendingCheckout::command).toList());
+        } catch (RuntimeException e) {
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+            return;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            batch.get(i).result().complete(results.get(i));
+        }
+        log.debug("Paczka {} zamówień złożona w {} ms", batch.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private record PendingCheckout(CheckoutCommand command, CompletableFuture<CheckoutResult> result) {
+    }
+}
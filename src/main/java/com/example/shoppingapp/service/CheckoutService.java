@@ -0,0 +1,199 @@
+package com.example.shoppingapp.service;
+
+import com.example.shoppingapp.dto.CheckoutCommand;
+import com.example.shoppingapp.dto.CheckoutLine;
+import com.example.shoppingapp.dto.CheckoutResult;
+import com.example.shoppingapp.model.Order;
+import com.example.shoppingapp.model.OrderItem;
+import com.example.shoppingapp.model.Product;
+import com.example.shoppingapp.monitoring.CheckoutEvent;
+import com.example.shoppingapp.pricing.PricingEngine;
+import com.example.shoppingapp.repository.OrderItemRepository;
+import com.example.shoppingapp.repository.OrderRepository;
+import com.example.shoppingapp.repository.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Składanie zamówień: sprawdzenie i zmniejszenie stanów, zmiana statusu / zapis zamówienia gościa.
+// Paczka zamówień idzie w jednej transakcji, ale o wyniku każdego decydują tylko jego własne pozycje -
+// brak towaru w jednym zamówieniu nie wycofuje pozostałych.
+@Service
+public class CheckoutService {
+
+    private static final Logger log = LoggerFactory.getLogger(CheckoutService.class);
+
+    private static final String FAILURE_MESSAGE = "Nie udało się złożyć zamówienia, spróbuj ponownie.";
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final ProductRepository productRepository;
+    private final ProductService productService;
+    private final PricingEngine pricingEngine;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public CheckoutService(OrderRepository orderRepository, OrderItemRepository orderItemRepository,
+                           ProductRepository productRepository, ProductService productService, PricingEngine pricingEngine,
+                           TransactionTemplate transactionTemplate, ApplicationEventPublisher eventPublisher) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+        this.productRepository = productRepository;
+        this.productService = productService;
+        this.pricingEngine = pricingEngine;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public CheckoutResult checkout(CheckoutCommand command) {
+        return checkoutAll(List.of(command)).get(0);
+    }
+
+    // Wyniki w kolejności poleceń. Gdy cała transakcja się nie powiedzie (np. zakleszczenie),
+    // każde zamówienie z paczki jest ponawiane osobno, żeby jedno nie pociągnęło za sobą reszty.
+    public List<CheckoutResult> checkoutAll(List<CheckoutCommand> commands) {
+        List<CheckoutEvent> events = commands.stream()
+                .map(command -> new CheckoutEvent(command.lines().size(), command.orderId() == null, commands.size()))
+                .toList();
+        events.forEach(CheckoutEvent::begin);
+        try {
+            long[] writeStart = new long[1];
+            List<CheckoutResult> results = transactionTemplate.execute(status -> {
+                List<CheckoutResult> placed = place(commands, events);
+                // Dalej już tylko flush i commit
+                writeStart[0] = System.nanoTime();
+                return placed;
+            });
+            long writeTime = System.nanoTime() - writeStart[0];
+            for (int i = 0; i < results.size(); i++) {
+                events.get(i).finish(results.get(i).confirmed() ? CheckoutEvent.CONFIRMED : CheckoutEvent.REJECTED, writeTime);
+            }
+            return results;
+        } catch (RuntimeException e) {
+            if (commands.size() == 1) {
+                events.get(0).finish(CheckoutEvent.FAILED, 0);
+                log.warn("Nie udało się złożyć zamówienia", e);
+                return List.of(CheckoutResult.rejected(FAILURE_MESSAGE));
+            }
+            events.forEach(event -> event.finish(CheckoutEvent.ROLLED_BACK, 0));
+            log.warn("Paczka {} zamówień wycofana, składam je pojedynczo", commands.size(), e);
+            return commands.stream().map(this::checkout).toList();
+        }
+    }
+
+    private List<CheckoutResult> place(List<CheckoutCommand> commands, List<CheckoutEvent> events) {
+        // Kolejność blokad jak przy zapisie produktów (catalog_version, potem produkty) - bez zakleszczeń z edycją katalogu
+        long version = productService.nextCatalogVersion();
+
+        Set<Long> orderIds = commands.stream()
+                .map(CheckoutCommand::orderId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        List<Long> pendingIds = orderIds.isEmpty() ? List.of() : orderRepository.lockPendingIds(orderIds);
+
+        // Produkty blokujemy i wczytujemy przed zamówieniami, żeby w kontekście trwałości były ich aktualne stany
+        Set<Long> productIds = new HashSet<>();
+        if (!pendingIds.isEmpty()) {
+            productIds.addAll(orderItemRepository.findProductIdsByOrderIds(pendingIds));
+        }
+        commands.forEach(command -> command.lines().forEach(line -> productIds.add(line.productId())));
+        Map<Long, Product> products = productIds.isEmpty() ? Map.of() : productRepository.findAllForUpdate(productIds)
+                .stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        // Mapa modyfikowalna - złożone zamówienie jest z niej usuwane, więc duplikat w paczce zostanie odrzucony
+        Map<Long, Order> orders = new HashMap<>();
+        if (!pendingIds.isEmpty()) {
+            orderRepository.findAllWithItemsByIdIn(pendingIds).forEach(order -> orders.put(order.getId(), order));
+        }
+
+        List<CheckoutResult> results = new ArrayList<>(commands.size());
+        for (int i = 0; i < commands.size(); i++) {
+            results.add(place(commands.get(i), orders, products, version, events.get(i)));
+        }
+        return results;
+    }
+
+    private CheckoutResult place(CheckoutCommand command, Map<Long, Order> orders, Map<Long, Product> products, long version,
+                                 CheckoutEvent event) {
+        Order order;
+        if (command.orderId() != null) {
+            order = orders.remove(command.orderId());
+            if (order == null) {
+                return CheckoutResult.rejected("Zamówienie zostało już złożone lub anulowane.");
+            }
+        } else {
+            order = guestOrder(command.lines(), products);
+            if (order == null) {
+                return CheckoutResult.rejected("Produkt z koszyka nie jest już dostępny.");
+            }
+        }
+
+        if (order.getOrderItems().isEmpty()) {
+            return CheckoutResult.rejected("Koszyk jest pusty, dodaj produkty przed złożeniem zamówienia.");
+        }
+
+        event.setLines(order.getOrderItems().size());
+        // Stany w mapie uwzględniają już wcześniejsze zamówienia z tej samej paczki
+        long stockCheckStart = System.nanoTime();
+        for (OrderItem item : order.getOrderItems()) {
+            Product product = products.get(item.getProduct().getId());
+            if (product == null || product.getStock() < item.getQuantity()) {
+                event.setStockCheckTime(System.nanoTime() - stockCheckStart);
+                return CheckoutResult.rejected("Niewystarczający stan magazynowy dla produktu " + item.getProduct().getName());
+            }
+        }
+        event.setStockCheckTime(System.nanoTime() - stockCheckStart);
+        for (OrderItem item : order.getOrderItems()) {
+            Product product = products.get(item.getProduct().getId());
+            product.setStock(product.getStock() - item.getQuantity());
+            product.setCatalogVersion(version);
+            // Cena z zablokowanego produktu, nie z chwili dodania do koszyka
+            item.setPrice(product.getPrice());
+        }
+
+        // Kwota zamówienia według promocji obowiązujących w chwili złożenia, nie ostatniej zmiany koszyka
+        pricingEngine.apply(order);
+        order.setContactName(command.contactName());
+        order.setContactPhone(command.contactPhone());
+        order.setContactAddress(command.contactAddress());
+        order.setStatus("CONFIRMED");
+        if (order.getId() == null) {
+            orderRepository.save(order);
+        }
+        eventPublisher.publishEvent(new OrderConfirmedEvent(order.getId(), order.getOrderItems().stream()
+                .map(item -> item.getProduct().getId())
+                .collect(Collectors.toSet())));
+        return CheckoutResult.confirmed(order.getId());
+    }
+
+    private Order guestOrder(List<CheckoutLine> lines, Map<Long, Product> products) {
+        Order order = new Order();
+        order.setOrderItems(new HashSet<>());
+        for (CheckoutLine line : lines) {
+            Product product = products.get(line.productId());
+            if (product == null) {
+                return null;
+            }
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setProduct(product);
+            item.setQuantity(line.quantity());
+            item.setPrice(product.getPrice());
+            order.getOrderItems().add(item);
+        }
+        return order;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.shoppingapp.service;
+
+// Mapa long -> int z adresowaniem otwartym (próbkowanie liniowe) - klucze i wartości w tablicach prymitywów,
+// bez obiektów Long/Integer na każdy wpis. Klucz 0 jest zarezerwowany jako pusty slot (id z bazy są dodatnie).
+// Bez usuwania wpisów i bez synchronizacji - dostęp chroni właściciel mapy.
+final class LongIntHashMap {
+
+    private static final float LOAD_FACTOR = 0.6f;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+    private int mask;
+
+    LongIntHashMap() {
+        this(8);
+    }
+
+    LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        keys = new long[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    int get(long key) {
+        int slot = slot(key);
+        return keys[slot] == key ? values[slot] : 0;
+    }
+
+    void put(long key, int value) {
+        int slot = slot(key);
+        if (keys[slot] == 0) {
+            insert(slot, key, value);
+        } else {
+            values[slot] = value;
+        }
+    }
+
+    void addTo(long key, int delta) {
+        int slot = slot(key);
+        if (keys[slot] == 0) {
+            insert(slot, key, delta);
+        } else {
+            values[slot] += delta;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    void forEach(Consumer consumer) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != 0) {
+                consumer.accept(keys[i], values[i]);
+            }
+        }
+    }
+
+    interface Consumer {
+        void accept(long key, int value);
+    }
+
+    private void insert(int slot, long key, int value) {
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > keys.length * LOAD_FACTOR) {
+            resize();
+        }
+    }
+
+    private int slot(long key) {
+        if (key == 0) {
+            throw new IllegalArgumentException("Klucz 0 jest zarezerwowany");
+        }
+        int slot = mix(key) & mask;
+        while (keys[slot] != 0 && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[oldKeys.length << 1];
+        values = new int[oldKeys.length << 1];
+        mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != 0) {
+                int slot = mix(oldKeys[i]) & mask;
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    // Kolejne id trafiałyby w kolejne sloty - mieszanie rozprasza je po tablicy
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
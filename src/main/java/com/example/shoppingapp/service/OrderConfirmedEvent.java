@@ -0,0 +1,7 @@
+package com.example.shoppingapp.service;
+
+import java.util.Set;
+
+// Publikowane przez CheckoutService dla każdego złożonego zamówienia; słuchacze dostają je po zatwierdzeniu transakcji
+public record OrderConfirmedEvent(Long orderId, Set<Long> productIds) {
+}
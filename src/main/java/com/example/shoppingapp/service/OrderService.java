@@ -1,4 +1,43 @@
 package com.example.shoppingapp.service;
 
+import com.example.shoppingapp.dto.OrderDto;
+import com.example.shoppingapp.dto.OrderItemDto;
+import com.example.shoppingapp.dto.OrderSummaryDto;
+import com.example.shoppingapp.repository.OrderItemRepository;
+import com.example.shoppingapp.repository.OrderRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Service
 public class OrderService {
+
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+
+    public OrderService(OrderRepository orderRepository, OrderItemRepository orderItemRepository) {
+        this.orderRepository = orderRepository;
+        this.orderItemRepository = orderItemRepository;
+    }
+
+    // Dwa zapytania niezależnie od liczby zamówień: nagłówki + wszystkie pozycje, składane w pamięci
+    @Transactional(readOnly = true)
+    public List<OrderDto> findAllOrders() {
+        List<OrderSummaryDto> summaries = orderRepository.findAllSummaries();
+        if (summaries.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, List<OrderItemDto>> itemsByOrder = orderItemRepository.findDtosByOrderIds(
+                        summaries.stream().map(OrderSummaryDto::id).toList())
+                .stream()
+                .collect(Collectors.groupingBy(OrderItemDto::orderId));
+
+        return summaries.stream()
+                .map(summary -> OrderDto.from(summary, itemsByOrder.getOrDefault(summary.id(), List.of())))
+                .toList();
+    }
 }
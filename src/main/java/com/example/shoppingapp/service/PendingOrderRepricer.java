@@ -0,0 +1,251 @@
+package com.example.shoppingapp.service;
+
+import com.example.shoppingapp.model.Order;
+import com.example.shoppingapp.model.OrderItem;
+import com.example.shoppingapp.model.Product;
+import com.example.shoppingapp.pricing.PricingEngine;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Po zmianie ceny przepisuje ceny pozycji i sumy otwartych koszyków (PENDING) w bazie, w tle i porcjami.
+// Zamówienia z przeterminowaną ceną są wyszukiwane przez indeks order_items(product_id, order_id). Każda porcja
+// to jedna transakcja bez wczytywania encji: blokada zamówień, zbiorczy UPDATE cen jednostkowych, a sumy pozycji
+// i zamówień liczy PricingEngine (z promocjami, jak przy wyświetleniu koszyka) i zapisuje je batchem.
+@Component
+public class PendingOrderRepricer {
+
+    private static final Logger log = LoggerFactory.getLogger(PendingOrderRepricer.class);
+
+    private static final String FIND_ORDERS = "select distinct oi.order_id from order_items oi " +
+            "join orders o on o.id = oi.order_id " +
+            "join products p on p.id = oi.product_id " +
+            "where oi.product_id in (:productIds) and oi.order_id > :after " +
+            "and o.status = 'PENDING' and oi.price <> p.price " +
+            "order by oi.order_id limit :limit";
+    // Blokada jak przy składaniu zamówienia (OrderRepository.lockPendingIds) - złożenie albo zmiana koszyka
+    // w trakcie porcji czeka na jej koniec i nie nadpisuje sum starszą wyceną
+    private static final String LOCK_ORDERS = "select id from orders where id in (:orderIds) and status = 'PENDING' " +
+            "order by id for update";
+    private static final String UPDATE_PRICES = "update order_items oi " +
+            "join products p on p.id = oi.product_id " +
+            "set oi.price = p.price " +
+            "where oi.order_id in (:orderIds) and oi.price <> p.price";
+    private static final String LOAD_ITEMS = "select id, order_id, product_id, quantity, price from order_items " +
+            "where order_id in (:orderIds) order by order_id, id";
+    private static final String UPDATE_ITEM_TOTAL = "update order_items set total_item_price = ? where id = ?";
+    private static final String UPDATE_ORDER_TOTAL = "update orders set total_price = ? where id = ?";
+
+    // Porcja wycofana przez zakleszczenie (np. z równoległym składaniem zamówienia) jest ponawiana
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PricingEngine pricingEngine;
+    private final int orderChunkSize;
+    private final int productChunkSize;
+
+    private final Set<Long> pendingProducts = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "order-repricing");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong productsProcessed = new AtomicLong();
+    private final AtomicLong ordersRepriced = new AtomicLong();
+    private final AtomicLong linesRepriced = new AtomicLong();
+    private final AtomicLong chunksCommitted = new AtomicLong();
+    private final AtomicLong chunksFailed = new AtomicLong();
+    private volatile Map<String, Object> lastRun = Map.of();
+
+    public PendingOrderRepricer(NamedParameterJdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                PricingEngine pricingEngine,
+                                @Value("${app.repricing.order-chunk-size:500}") int orderChunkSize,
+                                @Value("${app.repricing.product-chunk-size:1000}") int productChunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.pricingEngine = pricingEngine;
+        this.orderChunkSize = orderChunkSize;
+        this.productChunkSize = productChunkSize;
+    }
+
+    // Wywoływane po zatwierdzeniu zmiany cen - żądanie, które ją zapisało, nie czeka na przeliczenie
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onPriceChanged(ProductPriceChangedEvent event) {
+        pendingProducts.addAll(event.productIds());
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("running", scheduled.get());
+        stats.put("queuedProducts", pendingProducts.size());
+        stats.put("runs", runs.get());
+        stats.put("productsProcessed", productsProcessed.get());
+        stats.put("ordersRepriced", ordersRepriced.get());
+        stats.put("linesRepriced", linesRepriced.get());
+        stats.put("chunksCommitted", chunksCommitted.get());
+        stats.put("chunksFailed", chunksFailed.get());
+        stats.put("lastRun", lastRun);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Zmiany zgłoszone w trakcie przeliczania trafiają do kolejnego obiegu pętli
+    private void drain() {
+        try {
+            while (!pendingProducts.isEmpty()) {
+                List<Long> products = new ArrayList<>(pendingProducts);
+                pendingProducts.removeAll(products);
+                for (int from = 0; from < products.size(); from += productChunkSize) {
+                    reprice(products.subList(from, Math.min(products.size(), from + productChunkSize)));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.warn("Przeliczanie otwartych koszyków przerwane", e);
+        } finally {
+            scheduled.set(false);
+            // Zdarzenie mogło przyjść między ostatnim sprawdzeniem kolejki a zwolnieniem flagi
+            if (!pendingProducts.isEmpty() && scheduled.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+    }
+
+    private void reprice(List<Long> productIds) {
+        long start = System.nanoTime();
+        long orders = 0;
+        long lines = 0;
+        int chunks = 0;
+        long after = 0;
+        while (true) {
+            // Przepisane zamówienia przestają pasować do warunku oi.price <> p.price, a klucz "after" i tak idzie naprzód
+            List<Long> orderIds = jdbcTemplate.queryForList(FIND_ORDERS, new MapSqlParameterSource()
+                    .addValue("productIds", productIds)
+                    .addValue("after", after)
+                    .addValue("limit", orderChunkSize), Long.class);
+            if (orderIds.isEmpty()) {
+                break;
+            }
+            after = orderIds.get(orderIds.size() - 1);
+
+            int updated = updateChunk(orderIds);
+            if (updated >= 0) {
+                orders += orderIds.size();
+                lines += updated;
+                ordersRepriced.addAndGet(orderIds.size());
+                linesRepriced.addAndGet(updated);
+                chunksCommitted.incrementAndGet();
+            } else {
+                chunksFailed.incrementAndGet();
+            }
+            chunks++;
+            if (orderIds.size() < orderChunkSize) {
+                break;
+            }
+        }
+
+        runs.incrementAndGet();
+        productsProcessed.addAndGet(productIds.size());
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        Map<String, Object> run = new LinkedHashMap<>();
+        run.put("products", productIds.size());
+        run.put("orders", orders);
+        run.put("lines", lines);
+        run.put("chunks", chunks);
+        run.put("elapsedMs", elapsedMs);
+        lastRun = run;
+        log.info("Przeliczone otwarte koszyki: {} produktów, {} zamówień, {} pozycji, {} porcji, {} ms",
+                productIds.size(), orders, lines, chunks, elapsedMs);
+    }
+
+    // Liczba przepisanych pozycji albo -1, gdy porcja nie przeszła mimo ponowień
+    private int updateChunk(List<Long> orderIds) {
+        MapSqlParameterSource params = new MapSqlParameterSource("orderIds", orderIds);
+        for (int attempt = 1; ; attempt++) {
+            try {
+                Integer updated = transactionTemplate.execute(status -> {
+                    List<Long> locked = jdbcTemplate.queryForList(LOCK_ORDERS, params, Long.class);
+                    if (locked.isEmpty()) {
+                        return 0;
+                    }
+                    MapSqlParameterSource lockedParams = new MapSqlParameterSource("orderIds", locked);
+                    int items = jdbcTemplate.update(UPDATE_PRICES, lockedParams);
+                    updateTotals(lockedParams);
+                    return items;
+                });
+                return updated != null ? updated : 0;
+            } catch (TransientDataAccessException e) {
+                if (attempt == MAX_ATTEMPTS) {
+                    log.warn("Porcja {} zamówień nie została przeliczona", orderIds.size(), e);
+                    return -1;
+                }
+            }
+        }
+    }
+
+    // Sumy jak przy wyświetleniu koszyka i składaniu zamówienia - PricingEngine na lekkich obiektach z wierszy,
+    // bez encji i kontekstu persystencji
+    private void updateTotals(MapSqlParameterSource params) {
+        Map<Long, Order> orders = new LinkedHashMap<>();
+        jdbcTemplate.query(LOAD_ITEMS, params, rs -> {
+            Order order = orders.computeIfAbsent(rs.getLong("order_id"), id -> {
+                Order pending = new Order();
+                pending.setId(id);
+                pending.setOrderItems(new LinkedHashSet<>());
+                return pending;
+            });
+            Product product = new Product();
+            product.setId(rs.getLong("product_id"));
+
+            OrderItem item = new OrderItem();
+            item.setId(rs.getLong("id"));
+            item.setOrder(order);
+            item.setProduct(product);
+            item.setQuantity(rs.getInt("quantity"));
+            item.setPrice(rs.getBigDecimal("price"));
+            order.getOrderItems().add(item);
+        });
+
+        List<Object[]> itemTotals = new ArrayList<>();
+        List<Object[]> orderTotals = new ArrayList<>(orders.size());
+        for (Order order : orders.values()) {
+            pricingEngine.apply(order);
+            for (OrderItem item : order.getOrderItems()) {
+                itemTotals.add(new Object[]{item.getTotalItemPrice(), item.getId()});
+            }
+            orderTotals.add(new Object[]{order.getTotalPrice(), order.getId()});
+        }
+        jdbcTemplate.getJdbcOperations().batchUpdate(UPDATE_ITEM_TOTAL, itemTotals);
+        jdbcTemplate.getJdbcOperations().batchUpdate(UPDATE_ORDER_TOTAL, orderTotals);
+    }
+}
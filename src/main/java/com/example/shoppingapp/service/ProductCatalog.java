@@ -0,0 +1,132 @@
+package com.example.shoppingapp.service;
+
+import com.example.shoppingapp.dto.ProductDto;
+import com.example.shoppingapp.model.Product;
+import com.example.shoppingapp.repository.CatalogVersionRepository;
+import com.example.shoppingapp.repository.ProductRepository;
+import com.example.shoppingapp.repository.ProductTombstoneRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// Widok katalogu w pamięci węzła. Każdy węzeł co chwilę sprawdza wersję w catalog_version
+// (jedno zapytanie po kluczu głównym) i przy zmianie doczytuje tylko produkty i ślady usunięć (product_tombstones)
+// z nowszą wersją. Zmiany są nanoszone na mapę w miejscu, więc koszt odświeżenia zależy od liczby zmian,
+// a nie od wielkości katalogu; pełna lista jest składana dopiero, gdy ktoś o nią poprosi, raz na wersję.
+@Component
+public class ProductCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductCatalog.class);
+
+    private final ProductRepository productRepository;
+    private final CatalogVersionRepository catalogVersionRepository;
+    private final ProductTombstoneRepository productTombstoneRepository;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration tombstoneRetention;
+
+    private final ConcurrentNavigableMap<Long, ProductDto> products = new ConcurrentSkipListMap<>();
+    private volatile long version = -1L;
+    private volatile ProductList list = new ProductList(-1L, List.of());
+
+    public ProductCatalog(ProductRepository productRepository, CatalogVersionRepository catalogVersionRepository,
+                          ProductTombstoneRepository productTombstoneRepository, EntityManagerFactory entityManagerFactory,
+                          ApplicationEventPublisher eventPublisher,
+                          @Value("${app.catalog.tombstone-retention-hours:24}") long tombstoneRetentionHours) {
+        this.productRepository = productRepository;
+        this.catalogVersionRepository = catalogVersionRepository;
+        this.productTombstoneRepository = productTombstoneRepository;
+        this.entityManagerFactory = entityManagerFactory;
+        this.eventPublisher = eventPublisher;
+        this.tombstoneRetention = Duration.ofHours(tombstoneRetentionHours);
+    }
+
+    // Lista może być nieco nowsza niż getVersion() odczytane wcześniej, nigdy starsza
+    public List<ProductDto> getProducts() {
+        long current = getVersion();
+        ProductList cached = list;
+        if (cached.version() != current) {
+            cached = new ProductList(current, List.copyOf(products.values()));
+            list = cached;
+        }
+        return cached.products();
+    }
+
+    public ProductDto getProduct(Long id) {
+        if (version < 0) {
+            refresh();
+        }
+        return products.get(id);
+    }
+
+    // Strona katalogu po kluczu (keyset): do limit produktów o id większym niż after, w kolejności id
+    public List<ProductDto> page(long after, int limit) {
+        if (version < 0) {
+            refresh();
+        }
+        return products.tailMap(after, false).values().stream().limit(limit).toList();
+    }
+
+    public long getVersion() {
+        if (version < 0) {
+            refresh();
+        }
+        return version;
+    }
+
+    @Scheduled(fixedDelayString = "${app.catalog.poll-interval-ms:1000}")
+    public synchronized void refresh() {
+        long current = catalogVersionRepository.findCurrentVersion().orElse(0L);
+        long previous = version;
+        if (previous == current) {
+            return;
+        }
+
+        if (previous < 0) {
+            productRepository.findAllDtos().forEach(product -> products.put(product.id(), product));
+            version = current;
+            return;
+        }
+
+        // Najpierw usunięcia, potem zmiany - produkt usunięty i dodany ponownie (import z jawnym id) zostaje
+        Set<Long> removed = new HashSet<>(productTombstoneRepository.findProductIdsDeletedSince(previous));
+        List<ProductDto> changed = productRepository.findDtosChangedSince(previous);
+        removed.forEach(products::remove);
+        changed.forEach(product -> {
+            products.put(product.id(), product);
+            removed.remove(product.id());
+        });
+
+        // Zmiany mogły przyjść z innego węzła - usuwamy je też z lokalnego cache drugiego poziomu
+        changed.forEach(product -> entityManagerFactory.getCache().evict(Product.class, product.id()));
+        removed.forEach(id -> entityManagerFactory.getCache().evict(Product.class, id));
+
+        version = current;
+        eventPublisher.publishEvent(new CatalogChangedEvent(current, changed, removed));
+        log.debug("Katalog odświeżony do wersji {}: {} zmienionych, {} usuniętych", current, changed.size(), removed.size());
+    }
+
+    // Ślady usunięć są potrzebne tylko węzłom, które jeszcze nie doczytały tej wersji - po dobie już żadnym
+    @Scheduled(fixedDelayString = "${app.catalog.tombstone-prune-interval-ms:3600000}")
+    public void pruneTombstones() {
+        int deleted = productTombstoneRepository.deleteOlderThan(LocalDateTime.now().minus(tombstoneRetention));
+        if (deleted > 0) {
+            log.debug("Usunięto {} starych śladów usuniętych produktów", deleted);
+        }
+    }
+
+    private record ProductList(long version, List<ProductDto> products) {
+    }
+}
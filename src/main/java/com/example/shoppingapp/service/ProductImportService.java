@@ -0,0 +1,313 @@
+package com.example.shoppingapp.service;
+
+import com.example.shoppingapp.dto.ImportResult;
+import com.example.shoppingapp.dto.ProductImportRow;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// Import katalogu strumieniowo: plik czytany wiersz po wierszu, zapis porcjami przez JDBC batch
+// (INSERT ... ON DUPLICATE KEY UPDATE). W pamięci jest naraz najwyżej jedna porcja, niezależnie od rozmiaru pliku.
+@Service
+public class ProductImportService {
+
+    public enum Format { CSV, JSON_LINES }
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    // Po ON DUPLICATE KEY UPDATE nie ma żadnego "?" - tylko wtedy rewriteBatchedStatements skleja batch
+    // w wielowierszowe INSERT-y. Wiersze bez stanu magazynowego idą osobnym batchem, który stanu nie zmienia.
+    private static final String UPSERT = "INSERT INTO products (id, name, description, price, stock, image_url, catalog_version) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE name = VALUES(name), description = VALUES(description), price = VALUES(price), " +
+            "stock = VALUES(stock), image_url = VALUES(image_url), catalog_version = VALUES(catalog_version)";
+    private static final String UPSERT_KEEP_STOCK = "INSERT INTO products (id, name, description, price, stock, image_url, catalog_version) " +
+            "VALUES (?, ?, ?, ?, 0, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE name = VALUES(name), description = VALUES(description), price = VALUES(price), " +
+            "image_url = VALUES(image_url), catalog_version = VALUES(catalog_version)";
+
+    private static final int MAX_REPORTED_ERRORS = 20;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductService productService;
+    private final ProductCatalog productCatalog;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int defaultChunkSize;
+
+    public ProductImportService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                                ProductService productService, ProductCatalog productCatalog, ObjectMapper objectMapper,
+                                ApplicationEventPublisher eventPublisher, @Value("${app.import.chunk-size:1000}") int defaultChunkSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.productService = productService;
+        this.productCatalog = productCatalog;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.defaultChunkSize = defaultChunkSize;
+    }
+
+    public ImportResult importProducts(Reader reader, Format format, Integer chunkSize) throws IOException {
+        int size = chunkSize != null && chunkSize > 0 ? chunkSize : defaultChunkSize;
+        ImportRun run = new ImportRun(size);
+        long start = System.nanoTime();
+
+        if (format == Format.CSV) {
+            readCsv(new BufferedReader(reader), run);
+        } else {
+            readJsonLines(new BufferedReader(reader), run);
+        }
+        run.flush();
+
+        long elapsedNanos = System.nanoTime() - start;
+        // Lokalny widok katalogu odświeżamy raz na koniec, a nie po każdej porcji (porcje nie rejestrują
+        // odświeżenia po commicie) - jedno doczytanie zmian i jedno CatalogChangedEvent na cały import
+        productCatalog.refresh();
+
+        double rowsPerSecond = elapsedNanos > 0 ? run.rows * 1_000_000_000.0 / elapsedNanos : 0;
+        ImportResult result = new ImportResult(run.rows, run.rejected, run.chunks, elapsedNanos / 1_000_000,
+                Math.round(rowsPerSecond * 10) / 10.0, run.errors);
+        log.info("Import produktów: {} wierszy, {} odrzuconych, {} porcji, {} ms ({} wierszy/s)",
+                result.rows(), result.rejected(), result.chunks(), result.elapsedMs(), result.rowsPerSecond());
+        return result;
+    }
+
+    // Każda linia parsowana osobno - błędny JSON albo liczba w jednej linii odrzuca tylko tę linię
+    private void readJsonLines(BufferedReader reader, ImportRun run) throws IOException {
+        ObjectReader rowReader = objectMapper.readerFor(ProductImportRow.class);
+        String line;
+        long lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            ProductImportRow row;
+            try {
+                row = rowReader.readValue(line);
+            } catch (JsonProcessingException e) {
+                run.reject(lineNumber, "niepoprawny JSON (" + e.getOriginalMessage() + ")");
+                continue;
+            }
+            run.accept(lineNumber, row);
+        }
+    }
+
+    private void readCsv(BufferedReader reader, ImportRun run) throws IOException {
+        String header = reader.readLine();
+        if (header == null) {
+            return;
+        }
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> names = parseCsvLine(header.startsWith("\uFEFF") ? header.substring(1) : header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(), i);
+        }
+        if (!columns.containsKey("name") || !columns.containsKey("price")) {
+            throw new IllegalArgumentException("Nagłówek CSV musi zawierać kolumny name i price");
+        }
+
+        String line;
+        long lineNumber = 1;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            List<String> values = parseCsvLine(line);
+            try {
+                String id = column(values, columns, "id");
+                String stock = column(values, columns, "stock");
+                String price = column(values, columns, "price");
+                run.accept(lineNumber, new ProductImportRow(
+                        id != null ? Long.valueOf(id) : null,
+                        column(values, columns, "name"),
+                        column(values, columns, "description"),
+                        price != null ? new BigDecimal(price) : null,
+                        stock != null ? Integer.valueOf(stock) : null,
+                        firstNonNull(column(values, columns, "imageurl"), column(values, columns, "image_url"))));
+            } catch (NumberFormatException e) {
+                run.reject(lineNumber, "niepoprawna liczba (" + e.getMessage() + ")");
+            }
+        }
+    }
+
+    private static String column(List<String> values, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= values.size()) {
+            return null;
+        }
+        String value = values.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String firstNonNull(String first, String second) {
+        return first != null ? first : second;
+    }
+
+    // Pola w cudzysłowach mogą zawierać przecinki i podwojone cudzysłowy ("")
+    private static List<String> parseCsvLine(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private class ImportRun {
+
+        private final int chunkSize;
+        private final List<ProductImportRow> chunk;
+        private final List<String> errors = new ArrayList<>();
+        private long rows;
+        private long rejected;
+        private int chunks;
+
+        ImportRun(int chunkSize) {
+            this.chunkSize = chunkSize;
+            this.chunk = new ArrayList<>(chunkSize);
+        }
+
+        void accept(long line, ProductImportRow row) {
+            String error = validate(row);
+            if (error != null) {
+                reject(line, error);
+                return;
+            }
+            chunk.add(row);
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void reject(long line, String error) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add("wiersz " + line + ": " + error);
+            }
+        }
+
+        // Każda porcja to osobna transakcja z własną wersją katalogu
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            // Brak stanu w pliku (np. import samych cen) nie zeruje stanu istniejącego produktu; nowy produkt dostaje 0
+            List<ProductImportRow> withStock = new ArrayList<>(chunk.size());
+            List<ProductImportRow> withoutStock = new ArrayList<>();
+            for (ProductImportRow row : chunk) {
+                (row.stock() != null ? withStock : withoutStock).add(row);
+            }
+            transactionTemplate.executeWithoutResult(status -> {
+                long version = productService.nextCatalogVersion(false);
+                if (!withStock.isEmpty()) {
+                    jdbcTemplate.batchUpdate(UPSERT, withStock, withStock.size(), (ps, row) -> {
+                        setCommon(ps, row);
+                        ps.setInt(5, row.stock());
+                        ps.setString(6, row.imageUrl());
+                        ps.setLong(7, version);
+                    });
+                }
+                if (!withoutStock.isEmpty()) {
+                    jdbcTemplate.batchUpdate(UPSERT_KEEP_STOCK, withoutStock, withoutStock.size(), (ps, row) -> {
+                        setCommon(ps, row);
+                        ps.setString(5, row.imageUrl());
+                        ps.setLong(6, version);
+                    });
+                }
+                // Upsert nie mówi, czy cena się zmieniła - przeliczenie i tak dotknie tylko pozycji z inną ceną
+                Set<Long> existing = chunk.stream()
+                        .map(ProductImportRow::id)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet());
+                if (!existing.isEmpty()) {
+                    eventPublisher.publishEvent(new ProductPriceChangedEvent(existing));
+                }
+            });
+            rows += chunk.size();
+            chunks++;
+            chunk.clear();
+        }
+
+        private void setCommon(PreparedStatement ps, ProductImportRow row) throws SQLException {
+            if (row.id() != null) {
+                ps.setLong(1, row.id());
+            } else {
+                ps.setNull(1, Types.BIGINT);
+            }
+            ps.setString(2, row.name());
+            ps.setString(3, row.description());
+            ps.setBigDecimal(4, row.price());
+        }
+
+        private String validate(ProductImportRow row) {
+            if (row.name() == null || row.name().isBlank()) {
+                return "brak nazwy produktu";
+            }
+            if (row.name().length() > 255) {
+                return "nazwa dłuższa niż 255 znaków";
+            }
+            if (row.description() != null && row.description().length() > 500) {
+                return "opis dłuższy niż 500 znaków";
+            }
+            if (row.imageUrl() != null && row.imageUrl().length() > 1000) {
+                return "imageUrl dłuższy niż 1000 znaków";
+            }
+            if (row.price() == null || row.price().signum() < 0) {
+                return "cena musi być nieujemna";
+            }
+            if (row.stock() != null && row.stock() < 0) {
+                return "stan magazynowy musi być nieujemny";
+            }
+            return null;
+        }
+    }
+
+    public static Format formatOf(String name) {
+        String lower = name == null ? "" : name.toLowerCase();
+        return lower.endsWith(".jsonl") || lower.endsWith(".ndjson") || lower.contains("json") ? Format.JSON_LINES : Format.CSV;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.shoppingapp.service;
+
+import java.util.Set;
+
+// Zmiana ceny istniejących produktów - otwarte koszyki (PENDING) z tymi produktami trzeba przeliczyć
+public record ProductPriceChangedEvent(Set<Long> productIds) {
+}
@@ -0,0 +1,291 @@
+package com.example.shoppingapp.service;
+
+import com.example.shoppingapp.dto.ProductDto;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Indeks odwrócony nazw i opisów produktów w pamięci węzła. Słowa są normalizowane (małe litery, bez polskich
+// znaków: "Łódź" = "lodz"), ostatnie słowo zapytania dopasowywane jest jako prefiks przez drzewo trie.
+// Budowany z ProductCatalog przy pierwszym użyciu, potem aktualizowany tylko o zmienione i usunięte produkty.
+@Component
+public class ProductSearchIndex {
+
+    private static final Locale POLISH = Locale.forLanguageTag("pl");
+
+    private static final int NAME = 2;
+    private static final int DESCRIPTION = 1;
+
+    // Górny limit słów rozwijanych z jednego prefiksu - krótki prefiks ("a") nie przegląda całego słownika
+    private static final int MAX_PREFIX_TERMS = 256;
+
+    private final ProductCatalog productCatalog;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, ProductDto> products = new HashMap<>();
+    private final Map<Long, Set<String>> termsByProduct = new HashMap<>();
+    // słowo -> (id produktu -> pola, w których występuje: NAME | DESCRIPTION)
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    private final TrieNode trie = new TrieNode();
+    private long version = -1;
+
+    public ProductSearchIndex(ProductCatalog productCatalog) {
+        this.productCatalog = productCatalog;
+    }
+
+    public List<ProductDto> search(String query, int limit) {
+        return find(query, limit, DESCRIPTION);
+    }
+
+    // Podpowiedzi przy wpisywaniu - tylko dopasowania w nazwie
+    public List<ProductDto> suggest(String query, int limit) {
+        return find(query, limit, NAME);
+    }
+
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            // Jeszcze niezbudowany indeks i tak wczyta cały katalog przy pierwszym zapytaniu
+            if (version < 0 || event.version() <= version) {
+                return;
+            }
+            event.changed().forEach(this::put);
+            event.removed().forEach(this::remove);
+            version = event.version();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<ProductDto> find(String query, int limit, int minField) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        ensureBuilt();
+
+        lock.readLock().lock();
+        try {
+            // Każde słowo zapytania musi pasować (AND); wynik = suma najlepszych pól dla każdego słowa
+            Map<Long, Integer> scores = null;
+            for (int i = 0; i < tokens.size(); i++) {
+                boolean last = i == tokens.size() - 1;
+                Map<Long, Integer> matches = last ? prefixMatches(tokens.get(i)) : postings.getOrDefault(tokens.get(i), Map.of());
+                Map<Long, Integer> next = new HashMap<>();
+                for (Map.Entry<Long, Integer> match : matches.entrySet()) {
+                    int field = bestField(match.getValue());
+                    if (field < minField) {
+                        continue;
+                    }
+                    if (scores == null) {
+                        next.put(match.getKey(), field);
+                    } else if (scores.containsKey(match.getKey())) {
+                        next.put(match.getKey(), scores.get(match.getKey()) + field);
+                    }
+                }
+                scores = next;
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+
+            Map<Long, Integer> finalScores = scores;
+            return finalScores.keySet().stream()
+                    .map(products::get)
+                    .sorted(Comparator.<ProductDto>comparingInt(product -> -finalScores.get(product.id()))
+                            .thenComparing(ProductDto::name, Comparator.nullsLast(Comparator.naturalOrder()))
+                            .thenComparing(ProductDto::id))
+                    .limit(limit)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<Long, Integer> prefixMatches(String prefix) {
+        Map<Long, Integer> matches = new HashMap<>();
+        for (String term : trie.termsWithPrefix(prefix, MAX_PREFIX_TERMS)) {
+            postings.get(term).forEach((id, fields) -> matches.merge(id, fields, (a, b) -> a | b));
+        }
+        return matches;
+    }
+
+    private void ensureBuilt() {
+        lock.readLock().lock();
+        try {
+            if (version >= 0) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        // Katalog czytany bez blokady indeksu (odświeżenie katalogu publikuje zdarzenia, które jej potrzebują).
+        // Wersja przed listą - lista jest co najwyżej nowsza, a ponowne zastosowanie zmiany jest nieszkodliwe.
+        while (true) {
+            long catalogVersion = productCatalog.getVersion();
+            List<ProductDto> catalog = productCatalog.getProducts();
+            lock.writeLock().lock();
+            try {
+                if (version >= catalogVersion) {
+                    return;
+                }
+                Set<Long> stale = new HashSet<>(products.keySet());
+                for (ProductDto product : catalog) {
+                    stale.remove(product.id());
+                    put(product);
+                }
+                stale.forEach(this::remove);
+                version = catalogVersion;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            // Zmiana opublikowana między odczytem katalogu a ustawieniem wersji trafiła na niezbudowany indeks
+            // i została pominięta - wtedy katalog jest już dalej, więc wczytujemy go jeszcze raz
+            if (productCatalog.getVersion() <= catalogVersion) {
+                return;
+            }
+        }
+    }
+
+    private void put(ProductDto product) {
+        remove(product.id());
+        Map<String, Integer> fields = new HashMap<>();
+        tokenize(product.name()).forEach(term -> fields.merge(term, NAME, (a, b) -> a | b));
+        tokenize(product.description()).forEach(term -> fields.merge(term, DESCRIPTION, (a, b) -> a | b));
+
+        products.put(product.id(), product);
+        termsByProduct.put(product.id(), fields.keySet());
+        fields.forEach((term, field) -> {
+            Map<Long, Integer> ids = postings.computeIfAbsent(term, key -> {
+                trie.add(key);
+                return new HashMap<>();
+            });
+            ids.put(product.id(), field);
+        });
+    }
+
+    private void remove(Long id) {
+        products.remove(id);
+        Set<String> terms = termsByProduct.remove(id);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<Long, Integer> ids = postings.get(term);
+            ids.remove(id);
+            if (ids.isEmpty()) {
+                postings.remove(term);
+                trie.remove(term);
+            }
+        }
+    }
+
+    private static int bestField(int fields) {
+        return (fields & NAME) != 0 ? NAME : DESCRIPTION;
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = normalize(text);
+        Set<String> tokens = new LinkedHashSet<>();
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i <= normalized.length(); i++) {
+            char c = i < normalized.length() ? normalized.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                token.append(c);
+            } else if (!token.isEmpty()) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    // NFD rozkłada ą, ć, ę, ń, ó, ś, ź, ż na literę i znak diakrytyczny; "ł" nie ma rozkładu, więc zamieniamy je ręcznie
+    static String normalize(String text) {
+        String decomposed = Normalizer.normalize(text.toLowerCase(POLISH), Normalizer.Form.NFD);
+        StringBuilder normalized = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            normalized.append(c == 'ł' ? 'l' : c);
+        }
+        return normalized.toString();
+    }
+
+    private static final class TrieNode {
+
+        private final Map<Character, TrieNode> children = new HashMap<>();
+        private boolean terminal;
+
+        void add(String term) {
+            TrieNode node = this;
+            for (int i = 0; i < term.length(); i++) {
+                node = node.children.computeIfAbsent(term.charAt(i), key -> new TrieNode());
+            }
+            node.terminal = true;
+        }
+
+        void remove(String term) {
+            remove(term, 0);
+        }
+
+        // Zwraca true, gdy węzeł jest pusty i rodzic może go usunąć
+        private boolean remove(String term, int depth) {
+            if (depth == term.length()) {
+                terminal = false;
+            } else {
+                TrieNode child = children.get(term.charAt(depth));
+                if (child != null && child.remove(term, depth + 1)) {
+                    children.remove(term.charAt(depth));
+                }
+            }
+            return !terminal && children.isEmpty();
+        }
+
+        List<String> termsWithPrefix(String prefix, int limit) {
+            TrieNode node = this;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                node = node.children.get(prefix.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+            List<String> terms = new ArrayList<>();
+            node.collect(new StringBuilder(prefix), terms, limit);
+            return terms;
+        }
+
+        private void collect(StringBuilder term, List<String> terms, int limit) {
+            if (terms.size() >= limit) {
+                return;
+            }
+            if (terminal) {
+                terms.add(term.toString());
+            }
+            for (Map.Entry<Character, TrieNode> child : children.entrySet()) {
+                term.append(child.getKey());
+                child.getValue().collect(term, terms, limit);
+                term.setLength(term.length() - 1);
+            }
+        }
+    }
+}
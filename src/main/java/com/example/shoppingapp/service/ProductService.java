@@ -1,4 +1,99 @@
 package com.example.shoppingapp.service;
 
+import com.example.shoppingapp.model.CatalogVersion;
+import com.example.shoppingapp.model.Product;
+import com.example.shoppingapp.model.ProductTombstone;
+import com.example.shoppingapp.repository.CatalogVersionRepository;
+import com.example.shoppingapp.repository.ProductRepository;
+import com.example.shoppingapp.repository.ProductTombstoneRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+// Wszystkie zmiany produktów przechodzą tędy, żeby podbić wersję katalogu w tej samej transakcji
+@Service
 public class ProductService {
+
+    private final ProductRepository productRepository;
+    private final CatalogVersionRepository catalogVersionRepository;
+    private final ProductTombstoneRepository productTombstoneRepository;
+    private final ProductCatalog productCatalog;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ProductService(ProductRepository productRepository, CatalogVersionRepository catalogVersionRepository,
+                          ProductTombstoneRepository productTombstoneRepository, ProductCatalog productCatalog,
+                          ApplicationEventPublisher eventPublisher) {
+        this.productRepository = productRepository;
+        this.catalogVersionRepository = catalogVersionRepository;
+        this.productTombstoneRepository = productTombstoneRepository;
+        this.productCatalog = productCatalog;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Transactional
+    public Product save(Product product) {
+        product.setCatalogVersion(nextCatalogVersion());
+        if (product.getId() != null && product.isPriceChanged()) {
+            eventPublisher.publishEvent(new ProductPriceChangedEvent(Set.of(product.getId())));
+        }
+        return productRepository.save(product);
+    }
+
+    // Jedna wersja dla całej paczki (np. zmniejszenie stanów wszystkich pozycji zamówienia)
+    @Transactional
+    public List<Product> saveAll(Collection<Product> products) {
+        long version = nextCatalogVersion();
+        products.forEach(product -> product.setCatalogVersion(version));
+        return productRepository.saveAll(products);
+    }
+
+    @Transactional
+    public void deleteById(Long id) {
+        long version = nextCatalogVersion();
+        productRepository.deleteById(id);
+        // Ponowne usunięcie tego samego id (np. po imporcie z jawnym id) nadpisuje ślad nowszą wersją
+        productTombstoneRepository.save(new ProductTombstone(id, version, LocalDateTime.now()));
+    }
+
+    // Wymaga aktywnej transakcji - wiersz catalog_version pozostaje zablokowany do jej końca
+    long nextCatalogVersion() {
+        return nextCatalogVersion(true);
+    }
+
+    // refreshAfterCommit = false dla zapisów wieloporcjowych (import), które odświeżają widok same, raz na koniec
+    long nextCatalogVersion(boolean refreshAfterCommit) {
+        if (catalogVersionRepository.increment() == 0) {
+            ensureCatalogVersionRow();
+            catalogVersionRepository.increment();
+        }
+        long version = catalogVersionRepository.findCurrentVersion()
+                .orElseThrow(() -> new IllegalStateException("Brak wiersza catalog_version"));
+
+        // Lokalny węzeł nie czeka na najbliższe odpytanie - odświeża widok zaraz po zatwierdzeniu
+        if (refreshAfterCommit && TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    productCatalog.refresh();
+                }
+            });
+        }
+        return version;
+    }
+
+    private void ensureCatalogVersionRow() {
+        try {
+            catalogVersionRepository.saveAndFlush(new CatalogVersion(CatalogVersion.SINGLETON_ID, 0L));
+        } catch (DataIntegrityViolationException e) {
+            // Inny węzeł utworzył wiersz w międzyczasie
+        }
+    }
 }
@@ -0,0 +1,222 @@
+package com.example.shoppingapp.service;
+
+import com.example.shoppingapp.dto.ProductDelta;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Jeden nadawca dla wszystkich subskrybentów SSE strony głównej. Zmiana katalogu jest serializowana
+// raz i trafia do ograniczonej kolejki każdego subskrybenta; wysyłką zajmuje się mała pula wątków.
+// Subskrybent, którego kolejka jest pełna (wolny klient), jest rozłączany - przeglądarka połączy się ponownie.
+// Wysyłka to blokujący zapis do gniazda, więc klient z pełnym oknem TCP trzymałby wątek puli i wstrzymywał
+// pozostałych. Strażnik rozłącza subskrybenta, którego wysyłka trwa dłużej niż send-timeout-ms, a na czas
+// zawieszonego zapisu pula dostaje dodatkowy wątek (Tomcat nie przerywa zapisu na interrupt).
+@Component
+public class ProductUpdateBroadcaster {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductUpdateBroadcaster.class);
+
+    private static final String EVENT_NAME = "products";
+
+    private static final long IDLE = Long.MIN_VALUE;
+    private static final long EVICTED = Long.MIN_VALUE + 1;
+
+    private final ObjectMapper objectMapper;
+    private final int bufferSize;
+    private final long emitterTimeoutMs;
+    private final long sendTimeoutNanos;
+    private final int senderThreads;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor senders;
+    private int stalledSenders;
+
+    public ProductUpdateBroadcaster(ObjectMapper objectMapper,
+                                    @Value("${app.product-stream.buffer-size:32}") int bufferSize,
+                                    @Value("${app.product-stream.sender-threads:4}") int senderThreads,
+                                    @Value("${app.product-stream.timeout-ms:1800000}") long emitterTimeoutMs,
+                                    @Value("${app.product-stream.send-timeout-ms:5000}") long sendTimeoutMs) {
+        this.objectMapper = objectMapper;
+        this.bufferSize = bufferSize;
+        this.emitterTimeoutMs = emitterTimeoutMs;
+        this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        this.senderThreads = senderThreads;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.senders = new ThreadPoolExecutor(senderThreads, senderThreads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "product-stream-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, new ArrayBlockingQueue<>(bufferSize));
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        return emitter;
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        List<ProductDelta> deltas = new ArrayList<>(event.changed().size() + event.removed().size());
+        event.changed().forEach(product -> deltas.add(ProductDelta.from(product)));
+        event.removed().forEach(id -> deltas.add(ProductDelta.removed(id)));
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        try {
+            String payload = objectMapper.writeValueAsString(deltas);
+            broadcast(SseEmitter.event().name(EVENT_NAME).id(Long.toString(event.version())).data(payload).build());
+        } catch (JsonProcessingException e) {
+            log.warn("Nie udało się zserializować zmian katalogu", e);
+        }
+    }
+
+    // Komentarz SSE co jakiś czas utrzymuje połączenie i pozwala wykryć zamknięte przez klienta
+    @Scheduled(fixedDelayString = "${app.product-stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        if (!subscribers.isEmpty()) {
+            broadcast(SseEmitter.event().comment("ping").build());
+        }
+    }
+
+    // Strażnik wysyłek: subskrybent z zapisem dłuższym niż limit jest rozłączany, a jego wątek zastępowany
+    @Scheduled(fixedDelayString = "${app.product-stream.send-timeout-ms:5000}")
+    public void evictStalled() {
+        long now = System.nanoTime();
+        for (Subscriber subscriber : subscribers) {
+            long started = subscriber.sendStartedAt().get();
+            if (started != IDLE && started != EVICTED && now - started > sendTimeoutNanos
+                    && subscriber.sendStartedAt().compareAndSet(started, EVICTED)) {
+                // emitter.complete() czekałby na zawieszony zapis - zamknie go wątek wysyłki, gdy zapis wróci
+                subscribers.remove(subscriber);
+                subscriber.queue().clear();
+                resizeSenders(1);
+                log.debug("Subskrybent strumienia produktów rozłączony - wysyłka trwa ponad {} ms",
+                        TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos));
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter().complete());
+        senders.shutdownNow();
+    }
+
+    private void broadcast(Set<SseEmitter.DataWithMediaType> message) {
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.queue().offer(message)) {
+                drop(subscriber);
+                continue;
+            }
+            schedule(subscriber);
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.draining().compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            Set<SseEmitter.DataWithMediaType> message;
+            while ((message = subscriber.queue().poll()) != null) {
+                if (!send(subscriber, message)) {
+                    return;
+                }
+            }
+        } finally {
+            subscriber.draining().set(false);
+        }
+        // Wiadomość mogła dojść między ostatnim poll() a zwolnieniem flagi
+        if (!subscriber.queue().isEmpty()) {
+            schedule(subscriber);
+        }
+    }
+
+    // false, gdy subskrybent został rozłączony (błąd zapisu albo strażnik uznał wysyłkę za zawieszoną)
+    private boolean send(Subscriber subscriber, Set<SseEmitter.DataWithMediaType> message) {
+        long start = System.nanoTime();
+        subscriber.sendStartedAt().set(start);
+        try {
+            subscriber.emitter().send(message);
+        } catch (IOException | IllegalStateException e) {
+            if (!subscriber.sendStartedAt().compareAndSet(start, IDLE)) {
+                resizeSenders(-1);
+            }
+            drop(subscriber);
+            return false;
+        }
+        if (!subscriber.sendStartedAt().compareAndSet(start, IDLE)) {
+            // Strażnik już rozłączył subskrybenta i dał puli zastępczy wątek - oddajemy go
+            resizeSenders(-1);
+            subscriber.emitter().complete();
+            return false;
+        }
+        return true;
+    }
+
+    // Pula rośnie o wątki zajęte zawieszonymi zapisami, żeby pozostali subskrybenci nie czekali
+    private synchronized void resizeSenders(int delta) {
+        stalledSenders += delta;
+        int size = senderThreads + stalledSenders;
+        if (delta > 0) {
+            senders.setMaximumPoolSize(size);
+            senders.setCorePoolSize(size);
+        } else {
+            senders.setCorePoolSize(size);
+            senders.setMaximumPoolSize(size);
+        }
+    }
+
+    private void drop(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriber.queue().clear();
+            subscriber.emitter().complete();
+        }
+    }
+
+    // sendStartedAt: początek trwającej wysyłki (System.nanoTime), IDLE albo EVICTED
+    private record Subscriber(SseEmitter emitter, Queue<Set<SseEmitter.DataWithMediaType>> queue, AtomicBoolean draining,
+                              AtomicLong sendStartedAt) {
+
+        Subscriber(SseEmitter emitter, Queue<Set<SseEmitter.DataWithMediaType>> queue) {
+            this(emitter, queue, new AtomicBoolean(), new AtomicLong(IDLE));
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.example.shoppingapp.service;
+
+import com.example.shoppingapp.dto.ProductDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// "Często kupowane razem": rzadka macierz współwystąpień produktów w złożonych zamówieniach, trzymana w pamięci.
+// Budowana po starcie równoległym skanem zamówień CONFIRMED (zakresami id), potem uzupełniana o każde
+// złożone zamówienie. Każdy wiersz ma gotową listę najczęstszych sąsiadów, więc rekomendacja dla koszyka
+// to zsumowanie kilku krótkich tablic - bez zapytań do bazy.
+@Component
+public class RecommendationEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(RecommendationEngine.class);
+
+    private static final String SCAN_RANGE = "select min(id), max(id) from orders where status = 'CONFIRMED'";
+    private static final String SCAN = "select oi.order_id, oi.product_id from order_items oi " +
+            "join orders o on o.id = oi.order_id " +
+            "where o.status = 'CONFIRMED' and o.id between ? and ? order by oi.order_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductCatalog productCatalog;
+    private final int scanThreads;
+    private final int scanChunkSize;
+    private final int topNeighbours;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final CoOccurrence matrix = new CoOccurrence();
+    private volatile boolean ready;
+
+    public RecommendationEngine(JdbcTemplate jdbcTemplate, ProductCatalog productCatalog,
+                                @Value("${app.recommendations.scan-threads:4}") int scanThreads,
+                                @Value("${app.recommendations.scan-chunk-size:50000}") int scanChunkSize,
+                                @Value("${app.recommendations.top-neighbours:50}") int topNeighbours) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.productCatalog = productCatalog;
+        this.scanThreads = scanThreads;
+        this.scanChunkSize = scanChunkSize;
+        this.topNeighbours = topNeighbours;
+    }
+
+    // Budowa w tle - aplikacja obsługuje ruch od razu, koszyk do końca skanu po prostu nie ma rekomendacji
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        Thread thread = new Thread(this::build, "recommendations-build");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // Produkty dostępne w katalogu, najczęściej kupowane razem z zawartością koszyka (bez niej samej)
+    public List<ProductDto> recommend(Collection<Long> cartProductIds, int limit) {
+        if (!ready || cartProductIds.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        LongIntHashMap scores = new LongIntHashMap(cartProductIds.size() * topNeighbours);
+        lock.readLock().lock();
+        try {
+            for (Long productId : cartProductIds) {
+                Row row = matrix.find(productId);
+                if (row == null) {
+                    continue;
+                }
+                for (int i = 0; i < row.topIds.length; i++) {
+                    scores.addTo(row.topIds[i], row.topCounts[i]);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        long[] ids = new long[scores.size()];
+        int[] counts = new int[scores.size()];
+        AtomicInteger size = new AtomicInteger();
+        scores.forEach((id, count) -> {
+            if (!cartProductIds.contains(id)) {
+                ids[size.get()] = id;
+                counts[size.getAndIncrement()] = count;
+            }
+        });
+
+        List<ProductDto> recommendations = new ArrayList<>(limit);
+        for (int index : rank(ids, counts, size.get())) {
+            ProductDto product = productCatalog.getProduct(ids[index]);
+            if (product != null && product.stock() > 0) {
+                recommendations.add(product);
+                if (recommendations.size() == limit) {
+                    break;
+                }
+            }
+        }
+        return recommendations;
+    }
+
+    // Zamówienie złożone w tym węźle - wliczane dopiero po zatwierdzeniu transakcji
+    @TransactionalEventListener
+    public void onOrderConfirmed(OrderConfirmedEvent event) {
+        long[] products = event.productIds().stream().mapToLong(Long::longValue).toArray();
+        if (products.length < 2) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            matrix.addOrder(products, products.length);
+            for (long productId : products) {
+                matrix.row(productId).refreshTop(topNeighbours);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void build() {
+        long start = System.nanoTime();
+        ExecutorService pool = Executors.newFixedThreadPool(scanThreads, runnable -> {
+            Thread thread = new Thread(runnable, "recommendations-scan");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            long[] range = jdbcTemplate.queryForObject(SCAN_RANGE, (rs, rowNum) -> new long[]{rs.getLong(1), rs.getLong(2)});
+            List<Future<CoOccurrence>> parts = new ArrayList<>();
+            if (range != null && range[1] > 0) {
+                for (long from = range[0]; from <= range[1]; from += scanChunkSize) {
+                    long first = from;
+                    long last = Math.min(range[1], from + scanChunkSize - 1);
+                    parts.add(pool.submit(() -> scan(first, last)));
+                }
+            }
+
+            long orders = 0;
+            for (Future<CoOccurrence> part : parts) {
+                CoOccurrence scanned = part.get();
+                orders += scanned.orders;
+                lock.writeLock().lock();
+                try {
+                    matrix.merge(scanned);
+                } finally {
+                    lock.writeLock().unlock();
+                }
+            }
+
+            int products;
+            lock.writeLock().lock();
+            try {
+                matrix.rows.forEach(row -> row.refreshTop(topNeighbours));
+                products = matrix.rows.size();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            ready = true;
+            log.info("Rekomendacje: {} zamówień, {} produktów, {} zakresów, {} ms", orders, products, parts.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Nie udało się zbudować macierzy rekomendacji", e);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private CoOccurrence scan(long firstOrderId, long lastOrderId) {
+        CoOccurrence part = new CoOccurrence();
+        OrderLines lines = new OrderLines();
+        // Wiersze są posortowane po order_id - zamówienie jest kompletne, gdy zmienia się jego id
+        jdbcTemplate.query(SCAN, rs -> {
+            long orderId = rs.getLong(1);
+            if (orderId != lines.orderId) {
+                lines.flushTo(part);
+                lines.orderId = orderId;
+            }
+            lines.add(rs.getLong(2));
+        }, firstOrderId, lastOrderId);
+        lines.flushTo(part);
+        return part;
+    }
+
+    // Indeksy kandydatów od największej liczby wspólnych zamówień
+    private static Integer[] rank(long[] ids, int[] counts, int size) {
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> counts[a] != counts[b] ? Integer.compare(counts[b], counts[a]) : Long.compare(ids[a], ids[b]));
+        return order;
+    }
+
+    private static final class OrderLines {
+
+        private long orderId;
+        private long[] products = new long[16];
+        private int count;
+
+        void add(long productId) {
+            if (count == products.length) {
+                products = Arrays.copyOf(products, count * 2);
+            }
+            products[count++] = productId;
+        }
+
+        void flushTo(CoOccurrence target) {
+            if (count > 0) {
+                target.addOrder(products, count);
+            }
+            count = 0;
+        }
+    }
+
+    // Wiersze macierzy adresowane przez id produktu -> (indeks + 1) w liście; dostęp chroni blokada silnika
+    private static final class CoOccurrence {
+
+        private final LongIntHashMap rowIndex = new LongIntHashMap();
+        private final List<Row> rows = new ArrayList<>();
+        private long orders;
+
+        Row find(long productId) {
+            int index = rowIndex.get(productId);
+            return index == 0 ? null : rows.get(index - 1);
+        }
+
+        Row row(long productId) {
+            Row row = find(productId);
+            if (row == null) {
+                row = new Row(productId);
+                rows.add(row);
+                rowIndex.put(productId, rows.size());
+            }
+            return row;
+        }
+
+        void addOrder(long[] products, int count) {
+            for (int i = 0; i < count; i++) {
+                Row row = row(products[i]);
+                for (int j = 0; j < count; j++) {
+                    if (products[j] != products[i]) {
+                        row.counts.addTo(products[j], 1);
+                    }
+                }
+            }
+            orders++;
+        }
+
+        void merge(CoOccurrence other) {
+            for (Row source : other.rows) {
+                Row target = row(source.productId);
+                source.counts.forEach(target.counts::addTo);
+            }
+            orders += other.orders;
+        }
+    }
+
+    private static final class Row {
+
+        private final long productId;
+        private final LongIntHashMap counts = new LongIntHashMap();
+        private long[] topIds = new long[0];
+        private int[] topCounts = new int[0];
+
+        Row(long productId) {
+            this.productId = productId;
+        }
+
+        void refreshTop(int limit) {
+            long[] ids = new long[counts.size()];
+            int[] values = new int[counts.size()];
+            AtomicInteger size = new AtomicInteger();
+            counts.forEach((id, count) -> {
+                ids[size.get()] = id;
+                values[size.getAndIncrement()] = count;
+            });
+            Integer[] order = rank(ids, values, size.get());
+            int top = Math.min(limit, order.length);
+            long[] newIds = new long[top];
+            int[] newCounts = new int[top];
+            for (int i = 0; i < top; i++) {
+                newIds[i] = ids[order[i]];
+                newCounts[i] = values[order[i]];
+            }
+            topIds = newIds;
+            topCounts = newCounts;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.shoppingapp.session;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+// Zwarty format binarny koszyka gościa trzymanego w sesji. Zapisujemy tylko pola potrzebne
+// do wyświetlenia koszyka i złożenia zamówienia - bez grafu encji i nagłówków serializacji Javy.
+final class CartSessionCodec {
+
+    // 1 - dawny zapis całego Order (odczytywany przy migracji starych sesji), 2 - migawka GuestCart
+    private static final byte LEGACY_VERSION = 1;
+    private static final byte VERSION = 2;
+
+    private CartSessionCodec() {
+    }
+
+    static void write(GuestCart cart, DataOutputStream out) throws IOException {
+        out.writeByte(VERSION);
+        out.writeLong(cart.version());
+        out.writeInt(cart.lines().size());
+        for (GuestCart.Line line : cart.lines()) {
+            out.writeLong(line.productId());
+            writeNullableString(out, line.name());
+            writeDecimal(out, line.productPrice());
+            out.writeInt(line.stock());
+            out.writeInt(line.quantity());
+            writeDecimal(out, line.price());
+        }
+    }
+
+    static GuestCart read(DataInputStream in) throws IOException {
+        byte version = in.readByte();
+        if (version == LEGACY_VERSION) {
+            return readLegacy(in);
+        }
+        if (version != VERSION) {
+            throw new InvalidObjectException("Nieobsługiwana wersja zapisu koszyka: " + version);
+        }
+
+        long cartVersion = in.readLong();
+        int size = in.readInt();
+        List<GuestCart.Line> lines = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            lines.add(new GuestCart.Line(in.readLong(), readNullableString(in), readDecimal(in), in.readInt(),
+                    in.readInt(), readDecimal(in)));
+        }
+        return new GuestCart(cartVersion, lines);
+    }
+
+    // Status, suma, data i dane kontaktowe starego zapisu są pomijane - koszyk gościa ich nie potrzebuje
+    private static GuestCart readLegacy(DataInputStream in) throws IOException {
+        readNullableString(in);
+        readDecimal(in);
+        readDate(in);
+        readNullableString(in);
+        readNullableString(in);
+        readNullableString(in);
+
+        int size = in.readInt();
+        List<GuestCart.Line> lines = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            long productId = in.readLong();
+            String name = readNullableString(in);
+            BigDecimal productPrice = readDecimal(in);
+            int stock = in.readInt();
+            int quantity = in.readInt();
+            BigDecimal price = readDecimal(in);
+            readDecimal(in);
+            lines.add(new GuestCart.Line(productId, name, productPrice, stock, quantity, price));
+        }
+        return new GuestCart(1, lines);
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    // Kwoty mieszczą się w long, więc zapis to skala + wartość bez skali; większe liczby w postaci bajtów
+    private static void writeDecimal(DataOutputStream out, BigDecimal value) throws IOException {
+        if (value == null) {
+            out.writeByte(-1);
+            return;
+        }
+        BigInteger unscaled = value.unscaledValue();
+        if (unscaled.bitLength() < 64) {
+            out.writeByte(0);
+            out.writeInt(value.scale());
+            out.writeLong(unscaled.longValue());
+        } else {
+            byte[] bytes = unscaled.toByteArray();
+            out.writeByte(1);
+            out.writeInt(value.scale());
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static BigDecimal readDecimal(DataInputStream in) throws IOException {
+        byte kind = in.readByte();
+        if (kind == -1) {
+            return null;
+        }
+        int scale = in.readInt();
+        if (kind == 0) {
+            return BigDecimal.valueOf(in.readLong(), scale);
+        }
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new BigDecimal(new BigInteger(bytes), scale);
+    }
+
+    private static LocalDateTime readDate(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.shoppingapp.session;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+// Usuwa wygasłe sesje porcjami zamiast jednym DELETE na całej tabeli, żeby nie trzymać długich blokad
+// (wbudowane czyszczenie Spring Session jest wyłączone przez spring.session.jdbc.cleanup-cron=-)
+@Component
+public class ExpiredSessionSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpiredSessionSweeper.class);
+
+    private static final String DELETE_EXPIRED = "DELETE FROM SPRING_SESSION WHERE EXPIRY_TIME < ? LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    public ExpiredSessionSweeper(JdbcTemplate jdbcTemplate,
+                                 @Value("${app.session.sweeper.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(fixedDelayString = "${app.session.sweeper.interval-ms:60000}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        int total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(DELETE_EXPIRED, now, batchSize);
+            total += deleted;
+        } while (deleted == batchSize);
+
+        if (total > 0) {
+            log.debug("Usunięto {} wygasłych sesji", total);
+        }
+    }
+}
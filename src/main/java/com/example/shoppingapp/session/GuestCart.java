@@ -0,0 +1,148 @@
+package com.example.shoppingapp.session;
+
+import com.example.shoppingapp.model.Order;
+import com.example.shoppingapp.model.OrderItem;
+import com.example.shoppingapp.model.Product;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+// Niezmienny koszyk gościa. Każda zmiana to czysta funkcja zwracająca nową migawkę (albo tę samą, gdy nic
+// się nie zmienia), więc GuestCartStore może ją bezpiecznie powtórzyć po nieudanym compare-and-set.
+// Numer wersji rośnie z każdą zmianą - po nim rozpoznajemy nowszą migawkę zapisaną przez inny węzeł.
+public record GuestCart(long version, List<Line> lines) {
+
+    public static final GuestCart EMPTY = new GuestCart(0, List.of());
+
+    // productPrice i stock to dane produktu z chwili dodania, price to cena jednostkowa pozycji w koszyku
+    public record Line(long productId, String name, BigDecimal productPrice, int stock, int quantity, BigDecimal price) {
+
+        Line withQuantity(int quantity) {
+            return new Line(productId, name, productPrice, stock, quantity, price);
+        }
+    }
+
+    public GuestCart {
+        lines = List.copyOf(lines);
+    }
+
+    public int size() {
+        return lines.size();
+    }
+
+    public boolean isEmpty() {
+        return lines.isEmpty();
+    }
+
+    public GuestCart add(Product product) {
+        if (indexOf(product.getId()) >= 0) {
+            return increase(product.getId());
+        }
+        List<Line> added = new ArrayList<>(lines.size() + 1);
+        added.addAll(lines);
+        added.add(new Line(product.getId(), product.getName(), product.getPrice(), product.getStock(), 1, product.getPrice()));
+        return new GuestCart(version + 1, added);
+    }
+
+    public GuestCart increase(long productId) {
+        return changeLine(productId, line -> line.withQuantity(line.quantity() + 1));
+    }
+
+    // Jak w koszyku zalogowanego użytkownika: ilość nie spada poniżej 1, do usuwania służy remove
+    public GuestCart decrease(long productId) {
+        return changeLine(productId, line -> line.quantity() > 1 ? line.withQuantity(line.quantity() - 1) : line);
+    }
+
+    public GuestCart remove(long productId) {
+        return changeLine(productId, line -> null);
+    }
+
+    // Aktualne ceny produktów (id -> cena); pozycje spoza mapy zostają bez zmian
+    public GuestCart reprice(Map<Long, BigDecimal> prices) {
+        List<Line> repriced = new ArrayList<>(lines.size());
+        boolean changed = false;
+        for (Line line : lines) {
+            BigDecimal price = prices.get(line.productId());
+            if (price != null && (line.price() == null || line.price().compareTo(price) != 0)) {
+                repriced.add(new Line(line.productId(), line.name(), price, line.stock(), line.quantity(), price));
+                changed = true;
+            } else {
+                repriced.add(line);
+            }
+        }
+        return changed ? new GuestCart(version + 1, repriced) : this;
+    }
+
+    // Po złożeniu zamówienia odejmujemy tylko zamówione ilości - to, co w międzyczasie dodała inna karta, zostaje
+    public GuestCart subtract(GuestCart ordered) {
+        GuestCart result = this;
+        for (Line orderedLine : ordered.lines()) {
+            result = result.changeLine(orderedLine.productId(), line -> line.quantity() > orderedLine.quantity()
+                    ? line.withQuantity(line.quantity() - orderedLine.quantity())
+                    : null);
+        }
+        return result == this ? this : new GuestCart(version + 1, result.lines());
+    }
+
+    public GuestCart clear() {
+        return lines.isEmpty() ? this : new GuestCart(version + 1, List.of());
+    }
+
+    // Nowy, niewspółdzielony Order dla widoku, wyceny i składania zamówienia - każde żądanie ma własną kopię
+    public Order toOrder() {
+        Order order = new Order();
+        order.setStatus("PENDING");
+        order.setTotalPrice(BigDecimal.ZERO);
+        Set<OrderItem> items = new LinkedHashSet<>(Math.max(16, lines.size() * 2));
+        for (Line line : lines) {
+            Product product = new Product();
+            product.setId(line.productId());
+            product.setName(line.name());
+            product.setPrice(line.productPrice());
+            product.setStock(line.stock());
+
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setProduct(product);
+            item.setQuantity(line.quantity());
+            item.setPrice(line.price());
+            items.add(item);
+        }
+        order.setOrderItems(items);
+        return order;
+    }
+
+    // Zmiana jednej pozycji; null z funkcji usuwa pozycję, ta sama pozycja oznacza brak zmiany
+    private GuestCart changeLine(long productId, UnaryOperator<Line> change) {
+        int index = indexOf(productId);
+        if (index < 0) {
+            return this;
+        }
+        Line line = lines.get(index);
+        Line changed = change.apply(line);
+        if (changed == line) {
+            return this;
+        }
+        List<Line> updated = new ArrayList<>(lines);
+        if (changed == null) {
+            updated.remove(index);
+        } else {
+            updated.set(index, changed);
+        }
+        return new GuestCart(version + 1, updated);
+    }
+
+    private int indexOf(long productId) {
+        for (int i = 0; i < lines.size(); i++) {
+            if (lines.get(i).productId() == productId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.shoppingapp.session;
+
+import jakarta.servlet.http.HttpSession;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.UnaryOperator;
+
+// Koszyki gości bez blokad. Sesja JDBC jest wczytywana osobno dla każdego żądania, więc równoległe żądania
+// tej samej sesji (dwie karty, szybkie kliknięcia) dostają wspólny SessionCart z mapy węzła, a nie własne
+// kopie z bazy - zmiany łączą się przez compare-and-set zamiast nadpisywać. Między węzłami obowiązuje
+// nowsza wersja migawki; równoległe zmiany tej samej sesji na dwóch węzłach nadal wygrywa ostatni zapis.
+@Component
+public class GuestCartStore {
+
+    public static final String ATTRIBUTE = "cart";
+
+    private final ConcurrentMap<String, SessionCart> carts = new ConcurrentHashMap<>();
+    private final Duration sessionTimeout;
+
+    // Czas życia sesji z ServerProperties - @Value odczytałby "1800" jako milisekundy
+    public GuestCartStore(ServerProperties serverProperties) {
+        Duration timeout = serverProperties.getServlet().getSession().getTimeout();
+        this.sessionTimeout = timeout != null ? timeout : Duration.ofMinutes(30);
+    }
+
+    // Samo czytanie nie zakłada wpisu dla sesji bez koszyka (np. każdego gościa na stronie głównej)
+    public GuestCart get(HttpSession session) {
+        SessionCart cart = find(session);
+        return cart != null ? cart.get() : GuestCart.EMPTY;
+    }
+
+    public GuestCart update(HttpSession session, UnaryOperator<GuestCart> mutation) {
+        SessionCart found = find(session);
+        SessionCart cart = found != null ? found
+                : carts.computeIfAbsent(session.getId(), id -> new SessionCart(GuestCart.EMPTY));
+        GuestCart before = cart.get();
+        GuestCart after = cart.update(mutation);
+        if (after != before) {
+            // Ponowne ustawienie oznacza atrybut do zapisu; bajty powstają dopiero przy zapisie sesji
+            session.setAttribute(ATTRIBUTE, cart);
+        }
+        return after;
+    }
+
+    // Wpisy sesji nieużywanych dłużej niż ich czas życia - sesja i tak wygasła albo wróci z bazy
+    @Scheduled(fixedDelayString = "${app.session.sweeper.interval-ms:60000}")
+    public void evictIdle() {
+        long idleBefore = System.currentTimeMillis() - sessionTimeout.toMillis();
+        carts.values().removeIf(cart -> cart.lastAccess() < idleBefore);
+    }
+
+    private SessionCart find(HttpSession session) {
+        SessionCart stored = session.getAttribute(ATTRIBUTE) instanceof SessionCart sessionCart ? sessionCart : null;
+        SessionCart cart = carts.get(session.getId());
+        if (cart == null) {
+            if (stored == null) {
+                return null;
+            }
+            cart = carts.computeIfAbsent(session.getId(), id -> stored);
+        }
+        if (stored != null && stored != cart) {
+            cart.advanceTo(stored.get());
+        }
+        cart.touch();
+        return cart;
+    }
+}
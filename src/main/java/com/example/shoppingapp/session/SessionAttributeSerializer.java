@@ -0,0 +1,61 @@
+package com.example.shoppingapp.session;
+
+import com.example.shoppingapp.monitoring.SessionCartEvent;
+import org.springframework.core.serializer.DefaultDeserializer;
+import org.springframework.core.serializer.DefaultSerializer;
+import org.springframework.core.serializer.Deserializer;
+import org.springframework.core.serializer.Serializer;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+// Serializacja atrybutów sesji zapisywanych w bazie: koszyk (SessionCart) w formacie CartSessionCodec,
+// pozostałe atrybuty (kontekst Spring Security, token CSRF, flash) standardową serializacją Javy.
+// Strumień serializacji Javy zawsze zaczyna się od bajtu 0xAC, więc własny znacznik go nie koliduje.
+public class SessionAttributeSerializer implements Serializer<Object>, Deserializer<Object> {
+
+    private static final int CART_MARKER = 0x01;
+
+    private final DefaultSerializer javaSerializer = new DefaultSerializer();
+    private final DefaultDeserializer javaDeserializer;
+
+    public SessionAttributeSerializer(ClassLoader classLoader) {
+        this.javaDeserializer = new DefaultDeserializer(classLoader);
+    }
+
+    @Override
+    public void serialize(Object object, OutputStream outputStream) throws IOException {
+        if (object instanceof SessionCart sessionCart) {
+            SessionCartEvent event = new SessionCartEvent(SessionCartEvent.WRITE);
+            event.begin();
+            // Migawka z chwili zapisu - zawiera też zmiany równoległych żądań tej sesji
+            GuestCart cart = sessionCart.get();
+            DataOutputStream out = new DataOutputStream(outputStream);
+            out.writeByte(CART_MARKER);
+            CartSessionCodec.write(cart, out);
+            out.flush();
+            event.finish(cart.size(), out.size());
+        } else {
+            javaSerializer.serialize(object, outputStream);
+        }
+    }
+
+    @Override
+    public Object deserialize(InputStream inputStream) throws IOException {
+        // DeserializingConverter przekazuje ByteArrayInputStream, który obsługuje mark/reset
+        inputStream.mark(1);
+        int available = inputStream.available();
+        if (inputStream.read() == CART_MARKER) {
+            SessionCartEvent event = new SessionCartEvent(SessionCartEvent.READ);
+            event.begin();
+            GuestCart cart = CartSessionCodec.read(new DataInputStream(inputStream));
+            event.finish(cart.size(), available - inputStream.available());
+            return new SessionCart(cart);
+        }
+        inputStream.reset();
+        return javaDeserializer.deserialize(inputStream);
+    }
+}
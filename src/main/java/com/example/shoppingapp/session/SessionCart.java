@@ -0,0 +1,46 @@
+package com.example.shoppingapp.session;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+// Atrybut sesji "cart": atomowa referencja na bieżącą migawkę koszyka gościa. Ten sam obiekt dostają
+// wszystkie równoległe żądania sesji na danym węźle (GuestCartStore), a SessionAttributeSerializer
+// zapisuje migawkę aktualną w chwili zapisu sesji, nie tę z początku żądania.
+public final class SessionCart {
+
+    private final AtomicReference<GuestCart> current;
+    private volatile long lastAccess = System.currentTimeMillis();
+
+    SessionCart(GuestCart cart) {
+        this.current = new AtomicReference<>(cart);
+    }
+
+    public GuestCart get() {
+        return current.get();
+    }
+
+    // Pętla compare-and-set: przy konflikcie zmiana jest liczona od nowa na świeżej migawce, dlatego
+    // musi być czystą funkcją. Zwraca migawkę, do której doprowadziła właśnie ta zmiana.
+    GuestCart update(UnaryOperator<GuestCart> mutation) {
+        while (true) {
+            GuestCart before = current.get();
+            GuestCart after = mutation.apply(before);
+            if (after == before || current.compareAndSet(before, after)) {
+                return after;
+            }
+        }
+    }
+
+    // Migawka z bazy jest nowsza, jeśli w międzyczasie koszyk zmienił inny węzeł
+    void advanceTo(GuestCart stored) {
+        update(cart -> stored.version() > cart.version() ? stored : cart);
+    }
+
+    void touch() {
+        lastAccess = System.currentTimeMillis();
+    }
+
+    long lastAccess() {
+        return lastAccess;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.shoppingapp.session;
+
+import org.springframework.beans.factory.BeanClassLoaderAware;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.GenericConversionService;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Sesje trzymane są w bazie (Spring Session JDBC), dzięki czemu koszyk gościa przeżywa restart
+// i kolejne żądania mogą trafiać do dowolnego węzła bez sticky sessions.
+@Configuration
+@EnableScheduling
+public class SessionConfig implements BeanClassLoaderAware {
+
+    private ClassLoader classLoader;
+
+    @Override
+    public void setBeanClassLoader(ClassLoader classLoader) {
+        this.classLoader = classLoader;
+    }
+
+    // Spring Session JDBC używa beana o tej nazwie do zamiany atrybutów na bajty i z powrotem
+    @Bean("springSessionConversionService")
+    public ConversionService springSessionConversionService() {
+        SessionAttributeSerializer serializer = new SessionAttributeSerializer(classLoader);
+        GenericConversionService conversionService = new GenericConversionService();
+        conversionService.addConverter(Object.class, byte[].class, new SerializingConverter(serializer));
+        conversionService.addConverter(byte[].class, Object.class, new DeserializingConverter(serializer));
+        return conversionService;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.shoppingapp.view;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+// Strona katalogu dla szablonu. Kafelki są już wyrenderowane (ProductGridCache); przy ich wstawianiu
+// najpierw wypychamy to, co Thymeleaf zapisał dotąd (nagłówek strony), żeby przeglądarka mogła zacząć
+// pobierać style i obrazki, zanim dostanie resztę strony.
+public final class CatalogPage {
+
+    private final Long after;
+    private final Long nextAfter;
+    private final String tiles;
+    private final Flushable output;
+
+    CatalogPage(Long after, Long nextAfter, String tiles, Flushable output) {
+        this.after = after;
+        this.nextAfter = nextAfter;
+        this.tiles = tiles;
+        this.output = output;
+    }
+
+    public Long getAfter() {
+        return after;
+    }
+
+    public Long getNextAfter() {
+        return nextAfter;
+    }
+
+    public String getTiles() {
+        try {
+            output.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Nie udało się wysłać początku strony", e);
+        }
+        return tiles;
+    }
+}
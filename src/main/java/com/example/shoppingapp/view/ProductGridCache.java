@@ -0,0 +1,151 @@
+package com.example.shoppingapp.view;
+
+import com.example.shoppingapp.dto.ProductDto;
+import com.example.shoppingapp.service.CatalogChangedEvent;
+import com.example.shoppingapp.service.ProductCatalog;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.security.web.csrf.CsrfToken;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.View;
+import org.thymeleaf.spring6.view.ThymeleafViewResolver;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+// Gotowy HTML kafelków jednej strony katalogu, renderowany raz na wersję katalogu, wariant (gość / zalogowany)
+// i klucz strony ("after"). Strony są wycinane z widoku katalogu w pamięci (ProductCatalog.page), bez zapytań
+// do bazy. Zmiana produktu lub stanów przy zamówieniu podbija wersję katalogu, więc następne żądanie renderuje
+// stronę od nowa. Token CSRF formularzy "Kup teraz" jest wycinany z zapisanego HTML i wstawiany przy każdym
+// żądaniu - reszta strony (nagłówek z koszykiem i logowaniem) renderuje się normalnie.
+@Component
+public class ProductGridCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductGridCache.class);
+
+    private static final String VIEW = "product-grid :: grid";
+
+    private final ProductCatalog productCatalog;
+    private final ThymeleafViewResolver viewResolver;
+    private final int pageSize;
+    private final int maxPages;
+    private final Map<PageKey, RenderedGrid> grids = new ConcurrentHashMap<>();
+
+    public ProductGridCache(ProductCatalog productCatalog, ThymeleafViewResolver viewResolver,
+                            @Value("${app.catalog.page-size:48}") int pageSize,
+                            @Value("${app.catalog.cached-pages:1000}") int maxPages) {
+        this.productCatalog = productCatalog;
+        this.viewResolver = viewResolver;
+        this.pageSize = pageSize;
+        this.maxPages = maxPages;
+    }
+
+    public CatalogPage page(boolean authenticated, Long after, HttpServletRequest request, HttpServletResponse response) {
+        // Wersja przed stroną produktów: strona może być najwyżej nowsza niż klucz (wtedy kolejne żądanie
+        // wyrenderuje ją jeszcze raz), nigdy starsza
+        long version = productCatalog.getVersion();
+        PageKey key = new PageKey(authenticated, after != null ? after : 0L);
+        RenderedGrid grid = grids.get(key);
+        if (grid == null || grid.version() != version) {
+            grid = renderGrid(version, key.after(), request, response);
+            // "after" pochodzi z adresu, więc liczba wpisów jest ograniczona - nadmiarowe strony renderujemy bez cache
+            if (grids.size() < maxPages || grids.containsKey(key)) {
+                grids.merge(key, grid, (previous, rendered) -> rendered.version() >= previous.version() ? rendered : previous);
+            }
+        }
+        return new CatalogPage(after, grid.nextAfter(), grid.withCsrfToken(csrfToken(request)), response::flushBuffer);
+    }
+
+    @EventListener
+    public void onCatalogChanged(CatalogChangedEvent event) {
+        grids.values().removeIf(grid -> grid.version() < event.version());
+    }
+
+    private RenderedGrid renderGrid(long version, long after, HttpServletRequest request, HttpServletResponse response) {
+        long start = System.nanoTime();
+        // Jeden produkt ponad stronę mówi, czy jest następna
+        List<ProductDto> rows = productCatalog.page(after, pageSize + 1);
+        List<ProductDto> products = rows.size() > pageSize ? rows.subList(0, pageSize) : rows;
+        Long nextAfter = rows.size() > pageSize ? products.get(products.size() - 1).id() : null;
+
+        BufferedResponse buffered = new BufferedResponse(response);
+        try {
+            View view = viewResolver.resolveViewName(VIEW, LocaleContextHolder.getLocale());
+            view.render(Map.of("products", products), request, buffered);
+        } catch (Exception e) {
+            throw new IllegalStateException("Nie udało się wyrenderować siatki produktów", e);
+        }
+
+        String html = buffered.getContent();
+        String token = csrfToken(request);
+        List<String> parts = token == null ? List.of(html) : List.of(html.split(Pattern.quote(token), -1));
+        log.debug("Strona katalogu po {} dla wersji {} wyrenderowana w {} ms", after, version,
+                (System.nanoTime() - start) / 1_000_000);
+        return new RenderedGrid(version, parts, nextAfter);
+    }
+
+    private static String csrfToken(HttpServletRequest request) {
+        CsrfToken token = (CsrfToken) request.getAttribute(CsrfToken.class.getName());
+        return token != null ? token.getToken() : null;
+    }
+
+    private record PageKey(boolean authenticated, long after) {
+    }
+
+    // HTML podzielony w miejscach, gdzie stał token CSRF
+    private record RenderedGrid(long version, List<String> parts, Long nextAfter) {
+
+        String withCsrfToken(String token) {
+            return parts.size() == 1 ? parts.get(0) : String.join(token != null ? token : "", parts);
+        }
+    }
+
+    // Zbiera wynik widoku do pamięci, nie zmieniając nagłówków właściwej odpowiedzi
+    private static final class BufferedResponse extends HttpServletResponseWrapper {
+
+        private final StringWriter buffer = new StringWriter(16 * 1024);
+        private final PrintWriter writer = new PrintWriter(buffer);
+
+        BufferedResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public PrintWriter getWriter() {
+            return writer;
+        }
+
+        @Override
+        public void setContentType(String type) {
+        }
+
+        @Override
+        public void setCharacterEncoding(String charset) {
+        }
+
+        @Override
+        public void setLocale(Locale locale) {
+        }
+
+        @Override
+        public void flushBuffer() {
+            writer.flush();
+        }
+
+        String getContent() {
+            writer.flush();
+            return buffer.toString();
+        }
+    }
+}
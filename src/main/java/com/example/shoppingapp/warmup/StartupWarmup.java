@@ -0,0 +1,155 @@
+package com.example.shoppingapp.warmup;
+
+import com.example.shoppingapp.dto.ProductDto;
+import com.example.shoppingapp.pricing.PricingEngine;
+import com.example.shoppingapp.repository.ProductRepository;
+import com.example.shoppingapp.service.ProductCatalog;
+import com.example.shoppingapp.service.ProductSearchIndex;
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Rozgrzewka po starcie: pula połączeń, cache katalogu i seria syntetycznych żądań do własnego serwera
+// (JIT, plany zapytań Hibernate, szablony Thymeleaf). Działa synchronicznie w ApplicationReadyEvent -
+// Spring Boot przełącza gotowość na ACCEPTING_TRAFFIC dopiero po tym zdarzeniu, więc sonda
+// /actuator/health/readiness zgłasza gotowość po zakończeniu rozgrzewki.
+@Component
+@ConditionalOnProperty(name = "app.warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class StartupWarmup {
+
+    private static final Logger log = LoggerFactory.getLogger(StartupWarmup.class);
+
+    private final ApplicationContext context;
+    private final DataSource dataSource;
+    private final ProductCatalog productCatalog;
+    private final ProductSearchIndex productSearchIndex;
+    private final PricingEngine pricingEngine;
+    private final ProductRepository productRepository;
+    private final String requestMix;
+    private final int threads;
+    private final Duration maxDuration;
+    private final int cachedProducts;
+    private final String contextPath;
+
+    public StartupWarmup(ApplicationContext context, DataSource dataSource, ProductCatalog productCatalog,
+                         ProductSearchIndex productSearchIndex, PricingEngine pricingEngine,
+                         ProductRepository productRepository,
+                         @Value("${app.warmup.requests:GET /home x200}") String requestMix,
+                         @Value("${app.warmup.threads:4}") int threads,
+                         @Value("${app.warmup.max-duration:60s}") Duration maxDuration,
+                         @Value("${app.warmup.cached-products:1000}") int cachedProducts,
+                         @Value("${server.servlet.context-path:}") String contextPath) {
+        this.context = context;
+        this.dataSource = dataSource;
+        this.productCatalog = productCatalog;
+        this.productSearchIndex = productSearchIndex;
+        this.pricingEngine = pricingEngine;
+        this.productRepository = productRepository;
+        this.requestMix = requestMix;
+        this.threads = threads;
+        this.maxDuration = maxDuration;
+        this.cachedProducts = cachedProducts;
+        this.contextPath = contextPath;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        // Jawnie, na wypadek gdyby coś wcześniej zgłosiło gotowość - ruch dopiero po rozgrzewce
+        AvailabilityChangeEvent.publish(context, ReadinessState.REFUSING_TRAFFIC);
+
+        long start = System.nanoTime();
+        long deadline = start + maxDuration.toNanos();
+        Map<String, Long> steps = new LinkedHashMap<>();
+        step(steps, "pula połączeń", this::fillConnectionPool);
+        step(steps, "cache", this::loadCaches);
+        step(steps, "żądania", () -> replayRequests(deadline));
+
+        log.info("Rozgrzewka zakończona w {} ms {}", (System.nanoTime() - start) / 1_000_000, steps);
+    }
+
+    // Błąd rozgrzewki nie może zablokować startu - aplikacja zadziała, tylko wolniej na początku
+    private void step(Map<String, Long> steps, String name, Runnable action) {
+        long start = System.nanoTime();
+        try {
+            action.run();
+        } catch (RuntimeException e) {
+            log.warn("Rozgrzewka: krok '{}' nie powiódł się", name, e);
+        }
+        steps.put(name, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Hikari tworzy połączenia leniwie - pożyczamy naraz tyle, ile ma trzymać w spoczynku
+    private void fillConnectionPool() {
+        int target = 1;
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                target = Math.max(1, dataSource.unwrap(HikariDataSource.class).getMinimumIdle());
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Nie udało się odczytać konfiguracji puli", e);
+        }
+
+        List<Connection> connections = new ArrayList<>(target);
+        try {
+            for (int i = 0; i < target; i++) {
+                Connection connection = dataSource.getConnection();
+                connections.add(connection);
+                connection.isValid(1);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Nie udało się otworzyć połączeń do bazy", e);
+        } finally {
+            for (Connection connection : connections) {
+                try {
+                    connection.close();
+                } catch (SQLException e) {
+                    log.debug("Nie udało się zwrócić połączenia do puli", e);
+                }
+            }
+        }
+    }
+
+    private void loadCaches() {
+        List<ProductDto> products = productCatalog.getProducts();
+        productSearchIndex.suggest("a", 1);
+        pricingEngine.reload();
+        // Encje produktów trafiają do cache drugiego poziomu (koszyk i składanie zamówienia czytają je po id)
+        productRepository.findAllById(products.stream()
+                .limit(cachedProducts)
+                .map(ProductDto::id)
+                .toList());
+    }
+
+    private void replayRequests(long deadline) {
+        if (!(context instanceof WebServerApplicationContext webContext) || webContext.getWebServer() == null) {
+            return;
+        }
+        List<Long> productIds = productCatalog.getProducts().stream()
+                .filter(product -> product.stock() > 0)
+                .map(ProductDto::id)
+                .limit(50)
+                .toList();
+        String baseUrl = "http://localhost:" + webContext.getWebServer().getPort() + contextPath;
+        WarmupRequestMix.Result result = WarmupRequestMix.parse(requestMix).replay(baseUrl, productIds, threads, deadline);
+        log.info("Rozgrzewka: {} żądań ({} błędnych) w {} wątkach{}", result.sent(), result.failed(), threads,
+                result.timedOut() ? ", przerwane po " + maxDuration.toSeconds() + " s" : "");
+    }
+}
@@ -0,0 +1,173 @@
+package com.example.shoppingapp.warmup;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Mieszanka żądań rozgrzewki z app.warmup.requests, np. "GET /home x200, POST /cart/add/{productId} x100".
+// {productId} jest zastępowane kolejnymi dostępnymi produktami. Każdy wątek to osobny gość z własną sesją
+// (ciasteczko + token CSRF), a jego koszyk jest na koniec anulowany. Mieszanka nie powinna zawierać
+// żądań ze skutkami ubocznymi w bazie (np. składania zamówień).
+final class WarmupRequestMix {
+
+    private static final Pattern ENTRY = Pattern.compile("(GET|POST)\\s+(\\S+)\\s+x(\\d+)");
+    private static final Pattern CSRF = Pattern.compile("name=\"_csrf\"\\s+value=\"([^\"]+)\"");
+    private static final String PRODUCT_ID = "{productId}";
+    private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+    record Request(String method, String path, int count) {
+    }
+
+    record Result(long sent, long failed, boolean timedOut) {
+    }
+
+    private final List<Request> requests;
+
+    private WarmupRequestMix(List<Request> requests) {
+        this.requests = requests;
+    }
+
+    static WarmupRequestMix parse(String mix) {
+        List<Request> requests = new ArrayList<>();
+        for (String entry : mix.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            Matcher matcher = ENTRY.matcher(entry.trim());
+            if (!matcher.matches()) {
+                throw new IllegalArgumentException("Niepoprawny wpis app.warmup.requests: " + entry.trim());
+            }
+            requests.add(new Request(matcher.group(1), matcher.group(2), Integer.parseInt(matcher.group(3))));
+        }
+        return new WarmupRequestMix(requests);
+    }
+
+    Result replay(String baseUrl, List<Long> productIds, int threads, long deadline) {
+        List<Request> sequence = expand(productIds);
+        AtomicLong sent = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        AtomicBoolean timedOut = new AtomicBoolean();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "warmup-client");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> clients = new ArrayList<>(threads);
+            for (int client = 0; client < threads; client++) {
+                int first = client;
+                clients.add(pool.submit(() -> runClient(baseUrl, sequence, first, threads, deadline, sent, failed, timedOut)));
+            }
+            for (Future<?> client : clients) {
+                client.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Klient rozgrzewki zakończył się błędem", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+        return new Result(sent.get(), failed.get(), timedOut.get());
+    }
+
+    // Pojedyncze żądania przemieszane (stałe ziarno) - kolejne wątki nie biją w tę samą stronę jednocześnie
+    private List<Request> expand(List<Long> productIds) {
+        List<Request> sequence = new ArrayList<>();
+        int nextProduct = 0;
+        for (Request request : requests) {
+            if (request.path().contains(PRODUCT_ID) && productIds.isEmpty()) {
+                continue;
+            }
+            for (int i = 0; i < request.count(); i++) {
+                String path = request.path();
+                if (path.contains(PRODUCT_ID)) {
+                    path = path.replace(PRODUCT_ID, String.valueOf(productIds.get(nextProduct++ % productIds.size())));
+                }
+                sequence.add(new Request(request.method(), path, 1));
+            }
+        }
+        Collections.shuffle(sequence, new Random(42));
+        return sequence;
+    }
+
+    private void runClient(String baseUrl, List<Request> sequence, int first, int step, long deadline,
+                           AtomicLong sent, AtomicLong failed, AtomicBoolean timedOut) {
+        HttpClient client = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(TIMEOUT)
+                .build();
+        String csrfToken = null;
+        try {
+            for (int i = first; i < sequence.size(); i += step) {
+                if (System.nanoTime() > deadline) {
+                    timedOut.set(true);
+                    break;
+                }
+                Request request = sequence.get(i);
+                if ("POST".equals(request.method()) && csrfToken == null) {
+                    csrfToken = fetchCsrfToken(client, baseUrl);
+                }
+                sent.incrementAndGet();
+                if (!send(client, baseUrl, request, csrfToken)) {
+                    failed.incrementAndGet();
+                }
+            }
+            if (csrfToken != null) {
+                send(client, baseUrl, new Request("POST", "/cart/cancel", 1), csrfToken);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String fetchCsrfToken(HttpClient client, String baseUrl) throws InterruptedException {
+        try {
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/login"))
+                    .timeout(TIMEOUT)
+                    .GET()
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            Matcher matcher = CSRF.matcher(response.body());
+            return matcher.find() ? matcher.group(1) : "";
+        } catch (IOException e) {
+            return "";
+        }
+    }
+
+    private static boolean send(HttpClient client, String baseUrl, Request request, String csrfToken)
+            throws InterruptedException {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + request.path())).timeout(TIMEOUT);
+        if ("POST".equals(request.method())) {
+            builder.header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "_csrf=" + URLEncoder.encode(csrfToken != null ? csrfToken : "", StandardCharsets.UTF_8)));
+        } else {
+            builder.GET();
+        }
+        try {
+            return client.send(builder.build(), HttpResponse.BodyHandlers.discarding()).statusCode() < 400;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
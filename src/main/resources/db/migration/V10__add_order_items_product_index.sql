@@ -0,0 +1,5 @@
+-- PendingOrderRepricer szuka otwartych zamówień z danym produktem: order_items(product_id, order_id).
+-- Indeks złożony zaczyna się od kolumny klucza obcego, więc zastępuje dotychczasowy jednokolumnowy.
+ALTER TABLE `order_items`
+  ADD INDEX `idx_order_items_product_order` (`product_id`, `order_id`),
+  DROP INDEX `product_id`;
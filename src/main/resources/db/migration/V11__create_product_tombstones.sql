@@ -0,0 +1,9 @@
+-- Usunięte produkty z wersją katalogu - ProductCatalog doczytuje usunięcia po catalog_version zamiast
+-- porównywać pełną listę id z bazą
+CREATE TABLE IF NOT EXISTS `product_tombstones` (
+  `product_id` bigint NOT NULL,
+  `catalog_version` bigint NOT NULL,
+  `deleted_at` datetime(6) NOT NULL,
+  PRIMARY KEY (`product_id`),
+  KEY `idx_product_tombstones_version` (`catalog_version`)
+) ENGINE=InnoDB;
@@ -0,0 +1,9 @@
+CREATE TABLE IF NOT EXISTS `products` (
+  `id` bigint NOT NULL AUTO_INCREMENT,
+  `name` varchar(255) COLLATE utf8mb3_unicode_ci NOT NULL,
+  `description` varchar(500) COLLATE utf8mb3_unicode_ci DEFAULT NULL,
+  `price` decimal(38,2) NOT NULL,
+  `stock` int NOT NULL,
+  `image_url` varchar(1000) COLLATE utf8mb3_unicode_ci DEFAULT NULL,
+  PRIMARY KEY (`id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb3 COLLATE=utf8mb3_unicode_ci;
@@ -0,0 +1,10 @@
+-- Wersja katalogu do unieważniania widoków produktów między węzłami
+CREATE TABLE IF NOT EXISTS `catalog_version` (
+  `id` bigint NOT NULL,
+  `version` bigint NOT NULL,
+  PRIMARY KEY (`id`)
+) ENGINE=InnoDB;
+
+INSERT IGNORE INTO `catalog_version` (`id`, `version`) VALUES (1, 0);
+
+ALTER TABLE `products` ADD COLUMN `catalog_version` bigint NOT NULL DEFAULT 0;
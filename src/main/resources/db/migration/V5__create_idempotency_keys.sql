@@ -0,0 +1,10 @@
+CREATE TABLE IF NOT EXISTS `idempotency_keys` (
+  `id` varchar(64) NOT NULL,
+  `status_code` int NOT NULL,
+  `content_type` varchar(255) DEFAULT NULL,
+  `location` varchar(1000) DEFAULT NULL,
+  `body` mediumblob,
+  `created_at` datetime(6) NOT NULL,
+  PRIMARY KEY (`id`),
+  KEY `idx_idempotency_keys_created_at` (`created_at`)
+) ENGINE=InnoDB;
@@ -0,0 +1,16 @@
+-- Indeksy pod zapytania z repozytoriów:
+--   OrderRepository.findByUserAndStatus / findWithItemsByUserAndStatus -> orders(user_id, status)
+--   OrderItemRepository.findDtosByOrderIds (+ złączenie z produktem)   -> order_items(order_id, product_id)
+--   ProductRepository.findDtosChangedSince                              -> products(catalog_version)
+-- users.username i users.email mają już unikalne indeksy z V1.
+-- Indeksy złożone zaczynają się od kolumny klucza obcego, więc zastępują dotychczasowe jednokolumnowe.
+ALTER TABLE `orders`
+  ADD INDEX `idx_orders_user_status` (`user_id`, `status`),
+  DROP INDEX `user_id`;
+
+ALTER TABLE `order_items`
+  ADD INDEX `idx_order_items_order_product` (`order_id`, `product_id`),
+  DROP INDEX `order_id`;
+
+ALTER TABLE `products`
+  ADD INDEX `idx_products_catalog_version` (`catalog_version`);
@@ -0,0 +1,14 @@
+-- Pula identyfikatorów dla zamówień i pozycji zamówień (Hibernate @TableGenerator z optymalizatorem pooled).
+-- Wartości startowe leżą wyraźnie powyżej istniejących id, niezależnie od tego, czy optymalizator
+-- traktuje zapisaną wartość jako górną, czy dolną granicę przydzielonego zakresu.
+CREATE TABLE IF NOT EXISTS `id_sequences` (
+  `sequence_name` varchar(255) NOT NULL,
+  `next_val` bigint DEFAULT NULL,
+  PRIMARY KEY (`sequence_name`)
+) ENGINE=InnoDB;
+
+INSERT INTO `id_sequences` (`sequence_name`, `next_val`)
+SELECT 'orders', COALESCE(MAX(`id`), 0) + 1000 FROM `orders`;
+
+INSERT INTO `id_sequences` (`sequence_name`, `next_val`)
+SELECT 'order_items', COALESCE(MAX(`id`), 0) + 1000 FROM `order_items`;
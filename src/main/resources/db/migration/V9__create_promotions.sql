@@ -0,0 +1,23 @@
+-- Promocje liczone przez PricingEngine. Każdy węzeł przeładowuje skompilowane reguły,
+-- gdy zmieni się liczba wierszy albo najnowszy updated_at.
+--   PRODUCT        - rabat na produkt product_id od min_quantity sztuk
+--   BUNDLE         - rabat na product_id kupowany razem z required_product_id (na min(ilości obu) sztuk)
+--   CART_THRESHOLD - rabat na cały koszyk od kwoty min_cart_total
+-- Rabat to percent_off (procent) albo amount_off (kwota na sztukę, a dla koszyka - na całość).
+CREATE TABLE IF NOT EXISTS `promotions` (
+  `id` bigint NOT NULL AUTO_INCREMENT,
+  `name` varchar(255) COLLATE utf8mb3_unicode_ci NOT NULL,
+  `type` varchar(32) COLLATE utf8mb3_unicode_ci NOT NULL,
+  `product_id` bigint DEFAULT NULL,
+  `required_product_id` bigint DEFAULT NULL,
+  `min_quantity` int NOT NULL DEFAULT 1,
+  `min_cart_total` decimal(38,2) DEFAULT NULL,
+  `percent_off` decimal(5,2) DEFAULT NULL,
+  `amount_off` decimal(38,2) DEFAULT NULL,
+  `active` bit(1) NOT NULL DEFAULT b'1',
+  `valid_from` datetime(6) DEFAULT NULL,
+  `valid_to` datetime(6) DEFAULT NULL,
+  `updated_at` datetime(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6) ON UPDATE CURRENT_TIMESTAMP(6),
+  PRIMARY KEY (`id`),
+  KEY `idx_promotions_active` (`active`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb3 COLLATE=utf8mb3_unicode_ci;
@@ -0,0 +1,65 @@
+// infiniteScroll.js
+
+// Przewijanie bez końca na stronie głównej: gdy link "Następna strona" zbliża się do widoku, kolejne kafelki
+// są doczytywane z /home/products i dopisywane do siatki. Bez JS link działa jak zwykła paginacja.
+(function () {
+    const list = document.getElementById('product-list');
+    const pager = document.querySelector('.pager');
+    if (!list || !pager || !window.IntersectionObserver || !window.fetch) {
+        return;
+    }
+
+    let loading = false;
+    const observer = new IntersectionObserver(function (entries) {
+        if (entries.some(function (entry) { return entry.isIntersecting; })) {
+            loadNext();
+        }
+    }, { rootMargin: '600px' });
+
+    function observeNext() {
+        observer.disconnect();
+        const next = pager.querySelector('.next-page');
+        if (next) {
+            observer.observe(next);
+        }
+    }
+
+    function loadNext() {
+        const next = pager.querySelector('.next-page');
+        if (loading || !next) {
+            return;
+        }
+        loading = true;
+
+        fetch(next.dataset.fragmentUrl, { credentials: 'same-origin' })
+            .then(function (response) {
+                if (!response.ok) {
+                    throw new Error('HTTP ' + response.status);
+                }
+                return response.text();
+            })
+            .then(function (html) {
+                const page = document.createElement('template');
+                page.innerHTML = html;
+                page.content.querySelectorAll('.product-item').forEach(function (tile) {
+                    list.appendChild(tile);
+                });
+                const following = page.content.querySelector('.next-page');
+                if (following) {
+                    next.replaceWith(following);
+                } else {
+                    next.remove();
+                }
+                observeNext();
+            })
+            .catch(function () {
+                // Zostaje zwykły link do następnej strony
+                observer.disconnect();
+            })
+            .finally(function () {
+                loading = false;
+            });
+    }
+
+    observeNext();
+})();
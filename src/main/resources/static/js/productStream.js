@@ -0,0 +1,28 @@
+// productStream.js
+
+// Aktualizacje stanu magazynowego i cen bez przeładowania strony głównej
+(function () {
+    if (!window.EventSource) {
+        return;
+    }
+
+    const source = new EventSource('/products/stream');
+
+    source.addEventListener('products', function (event) {
+        JSON.parse(event.data).forEach(function (delta) {
+            const tile = document.querySelector('[data-product-id="' + delta.id + '"]');
+            if (!tile) {
+                return;
+            }
+
+            const available = delta.stock > 0;
+            tile.classList.toggle('out-of-stock', !available);
+            tile.querySelector('.buy-block').hidden = !available;
+            tile.querySelector('.unavailable-block').hidden = available;
+
+            if (delta.price !== null) {
+                tile.querySelector('.product-price').textContent = '$' + delta.price;
+            }
+        });
+    });
+})();
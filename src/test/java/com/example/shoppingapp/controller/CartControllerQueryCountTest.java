@@ -0,0 +1,108 @@
+package com.example.shoppingapp.controller;
+
+import com.example.shoppingapp.model.Order;
+import com.example.shoppingapp.model.OrderItem;
+import com.example.shoppingapp.model.Product;
+import com.example.shoppingapp.model.User;
+import com.example.shoppingapp.monitoring.QueryCountAssertions;
+import com.example.shoppingapp.monitoring.QueryCountHolder;
+import com.example.shoppingapp.repository.OrderRepository;
+import com.example.shoppingapp.repository.ProductRepository;
+import com.example.shoppingapp.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Widok koszyka ładuje zamówienie z pozycjami i produktami jednym zapytaniem (Order.WITH_ITEMS_AND_PRODUCTS),
+// więc liczba zapytań nie może rosnąć z liczbą pozycji
+@SpringBootTest(properties = "app.warmup.enabled=false")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CartControllerQueryCountTest {
+
+    private static final int LARGE_CART = 10;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @AfterEach
+    void stopCounting() {
+        QueryCountHolder.stop();
+    }
+
+    @Test
+    void cartViewStatementCountDoesNotDependOnCartSize() throws Exception {
+        String smallCartUser = userWithCart("koszyk-maly", 1);
+        String largeCartUser = userWithCart("koszyk-duzy", LARGE_CART);
+
+        viewCart(smallCartUser, 1);
+        int smallCartStatements = QueryCountAssertions.stats().getTotal();
+
+        viewCart(largeCartUser, LARGE_CART);
+        QueryCountAssertions.assertStatementCount(smallCartStatements);
+        QueryCountAssertions.assertNoRepeatedStatements(3);
+    }
+
+    // Pierwsze wyświetlenie wypełnia cache (natural id użytkownika, cache drugiego poziomu) - liczone jest drugie
+    private void viewCart(String username, int expectedItems) throws Exception {
+        mockMvc.perform(get("/cart").with(user(username)))
+                .andExpect(status().isOk());
+
+        QueryCountAssertions.reset();
+        mockMvc.perform(get("/cart").with(user(username)))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("itemCount", expectedItems));
+    }
+
+    private String userWithCart(String username, int items) {
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword("nieuzywane");
+        user.setEmail(username + "@example.com");
+        user = userRepository.save(user);
+
+        Order order = new Order();
+        order.setUser(user);
+        order.setStatus("PENDING");
+        Set<OrderItem> orderItems = new HashSet<>();
+        for (int i = 0; i < items; i++) {
+            Product product = new Product();
+            product.setName(username + " produkt " + i);
+            product.setPrice(new BigDecimal("19.99"));
+            product.setStock(100);
+            product = productRepository.save(product);
+
+            OrderItem item = new OrderItem();
+            item.setOrder(order);
+            item.setProduct(product);
+            item.setQuantity(i + 1);
+            item.setPrice(product.getPrice());
+            orderItems.add(item);
+        }
+        order.setOrderItems(orderItems);
+        orderRepository.save(order);
+        return username;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.shoppingapp.session;
+
+import com.example.shoppingapp.model.Product;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.mock.web.MockHttpSession;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class GuestCartStoreTest {
+
+    private static final String SESSION_ID = "sesja-goscia";
+    private static final int THREADS = 16;
+    private static final int REQUESTS = 2_000;
+
+    // Każde żądanie dostaje z bazy własną kopię sesji (Spring Session JDBC) z tą samą, starą migawką koszyka -
+    // zmiany równoległych żądań i tak muszą się złożyć w sklepie węzła, bez utraty kliknięć
+    @Test
+    void concurrentRequestsOfOneSessionDoNotLoseIncrements() throws Exception {
+        GuestCartStore store = new GuestCartStore(new ServerProperties());
+        GuestCart initial = GuestCart.EMPTY.add(product(1L)).add(product(2L));
+        store.update(loadedSession(initial), cart -> cart);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                long productId = t % 2 == 0 ? 1L : 2L;
+                tasks.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < REQUESTS; i++) {
+                        store.update(loadedSession(initial), cart -> cart.increase(productId));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> task : tasks) {
+                task.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        GuestCart result = store.get(new MockHttpSession(null, SESSION_ID));
+        int perProduct = THREADS / 2 * REQUESTS;
+        assertEquals(2, result.size());
+        assertEquals(1 + perProduct, quantity(result, 1L));
+        assertEquals(1 + perProduct, quantity(result, 2L));
+        assertEquals(initial.version() + (long) THREADS * REQUESTS, result.version());
+    }
+
+    // Pierwsze żądania nowej sesji (bez koszyka w bazie) zakładają jeden wspólny wpis
+    @Test
+    void concurrentFirstAddsOfNewSessionAreAllKept() throws Exception {
+        GuestCartStore store = new GuestCartStore(new ServerProperties());
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                long productId = t + 1;
+                tasks.add(executor.submit(() -> {
+                    start.await();
+                    store.update(new MockHttpSession(null, SESSION_ID), cart -> cart.add(product(productId)));
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> task : tasks) {
+                task.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        GuestCart result = store.get(new MockHttpSession(null, SESSION_ID));
+        assertEquals(THREADS, result.size());
+        assertEquals(THREADS, result.version());
+    }
+
+    private static MockHttpSession loadedSession(GuestCart stored) {
+        MockHttpSession session = new MockHttpSession(null, SESSION_ID);
+        session.setAttribute(GuestCartStore.ATTRIBUTE, new SessionCart(stored));
+        return session;
+    }
+
+    private static Product product(long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Produkt " + id);
+        product.setPrice(new BigDecimal("9.99"));
+        product.setStock(1000);
+        return product;
+    }
+
+    private static int quantity(GuestCart cart, long productId) {
+        return cart.lines().stream()
+                .filter(line -> line.productId() == productId)
+                .mapToInt(GuestCart.Line::quantity)
+                .findFirst()
+                .orElse(0);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.shoppingapp.session;
+
+import com.example.shoppingapp.model.Product;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class SessionCartTest {
+
+    private static final int THREADS = 16;
+    private static final int INCREMENTS = 10_000;
+
+    // Równoległe zmiany tej samej sesji (np. dwie karty) nie mogą zgubić żadnego kliknięcia
+    @Test
+    void concurrentIncrementsAreNotLost() throws Exception {
+        GuestCart initial = GuestCart.EMPTY.add(product(1L)).add(product(2L));
+        SessionCart cart = new SessionCart(initial);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                // Połowa wątków zmienia pierwszą pozycję, połowa drugą - konflikty dotyczą całej migawki
+                long productId = t % 2 == 0 ? 1L : 2L;
+                tasks.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < INCREMENTS; i++) {
+                        cart.update(current -> current.increase(productId));
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> task : tasks) {
+                task.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        GuestCart result = cart.get();
+        int perProduct = THREADS / 2 * INCREMENTS;
+        assertEquals(2, result.size());
+        assertEquals(1 + perProduct, quantity(result, 1L));
+        assertEquals(1 + perProduct, quantity(result, 2L));
+        assertEquals(initial.version() + (long) THREADS * INCREMENTS, result.version());
+    }
+
+    @Test
+    void concurrentAddsOfDifferentProductsAreAllKept() throws Exception {
+        SessionCart cart = new SessionCart(GuestCart.EMPTY);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                long productId = t + 1;
+                tasks.add(executor.submit(() -> {
+                    start.await();
+                    cart.update(current -> current.add(product(productId)));
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> task : tasks) {
+                task.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        GuestCart result = cart.get();
+        assertEquals(THREADS, result.size());
+        for (long productId = 1; productId <= THREADS; productId++) {
+            assertEquals(1, quantity(result, productId));
+        }
+        assertEquals(THREADS, result.version());
+    }
+
+    @Test
+    void updateWithoutChangeKeepsSnapshot() {
+        GuestCart initial = GuestCart.EMPTY.add(product(1L));
+        SessionCart cart = new SessionCart(initial);
+
+        GuestCart result = cart.update(current -> current.decrease(1L));
+
+        assertSame(initial, result);
+        assertEquals(1, quantity(cart.get(), 1L));
+    }
+
+    private static Product product(long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Produkt " + id);
+        product.setPrice(new BigDecimal("9.99"));
+        product.setStock(1000);
+        return product;
+    }
+
+    private static int quantity(GuestCart cart, long productId) {
+        return cart.lines().stream()
+                .filter(line -> line.productId() == productId)
+                .mapToInt(GuestCart.Line::quantity)
+                .findFirst()
+                .orElse(0);
+    }
+}
@@ -0,0 +1,25 @@
+-- Tabele i wiersze z migracji Flyway, których Hibernate (ddl-auto=create-drop) nie tworzy, bo nie mają encji.
+-- Odpowiedniki V4 i V9 w składni H2; uruchamiane po utworzeniu schematu przez Hibernate.
+
+INSERT INTO catalog_version (id, version) VALUES (1, 0);
+
+CREATE TABLE IF NOT EXISTS promotions (
+  id bigint NOT NULL AUTO_INCREMENT PRIMARY KEY,
+  name varchar(255) NOT NULL,
+  type varchar(32) NOT NULL,
+  product_id bigint DEFAULT NULL,
+  required_product_id bigint DEFAULT NULL,
+  min_quantity int NOT NULL DEFAULT 1,
+  min_cart_total decimal(38,2) DEFAULT NULL,
+  percent_off decimal(5,2) DEFAULT NULL,
+  amount_off decimal(38,2) DEFAULT NULL,
+  active boolean NOT NULL DEFAULT TRUE,
+  valid_from timestamp(6) DEFAULT NULL,
+  valid_to timestamp(6) DEFAULT NULL,
+  updated_at timestamp(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6)
+);
+CREATE INDEX IF NOT EXISTS idx_promotions_active ON promotions (active);
+
+-- Nieaktywna promocja: odcisk PricingEngine (coalesce(max(updated_at), '')) na pustej tabeli w H2
+-- próbowałby zamienić '' na datę. Reguła nie jest wczytywana (active = false), więc nie zmienia cen.
+INSERT INTO promotions (name, type, product_id, percent_off, active) VALUES ('test-nieaktywna', 'PRODUCT', 1, 10.00, FALSE);